@@ -2,6 +2,7 @@
 
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -58,6 +59,15 @@ public class GlobalExceptionHandler {
                 .body(Map.of("message", e.getMessage()));
     }
 
+    // 주문 대기열이 가득 찬 경우 : 잠시 후 다시 시도하도록 503 + Retry-After
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<?> handleOrderQueueFullException(OrderQueueFullException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", e.getMessage()));
+    }
+
     // 인증은 되었으나 권한이 없을 때 발생하는 예외
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<?> handleAccessDeniedException(AccessDeniedException e) {
@@ -0,0 +1,9 @@
+package com.jpa.market.config.exception;
+
+//주문 대기열이 가득 차서 더 이상 주문을 받을 수 없을 때 (503)
+public class OrderQueueFullException extends RuntimeException {
+
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,86 @@
+package com.jpa.market.config.jpa;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+//서버 시작 시 장바구니 유니크 제약 확인
+//  - cart(member_id) : 회원당 장바구니 하나
+//  - cart_item(cart_id, item_id) : 장바구니당 같은 상품 한 줄
+//제약이 생기기 전에 동시 요청으로 중복 행이 만들어졌다면 ddl-auto(update)가 제약을 추가하지 못하므로
+//중복을 합친 뒤(수량은 더함) 직접 추가함. 이미 제약이 있으면 아무것도 하지 않음
+@Slf4j
+@Component
+public class CartUniqueKeyInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //EntityManagerFactory를 주입받아서 스키마 생성(ddl-auto) 이후에 실행되도록 함
+    public CartUniqueKeyInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        // 장바구니부터 합쳐야 옮겨진 장바구니 상품의 중복까지 한 번에 합칠 수 있음
+        if (!hasUniqueKey("cart", "member_id")) {
+            mergeDuplicateCarts();
+            jdbcTemplate.update("alter table cart add constraint uk_cart_member unique (member_id)");
+            log.info("cart(member_id) 유니크 제약 추가");
+        }
+        if (!hasUniqueKey("cart_item", "cart_id,item_id")) {
+            mergeDuplicateCartItems();
+            jdbcTemplate.update("alter table cart_item add constraint uk_cart_item_cart_item unique (cart_id, item_id)");
+            log.info("cart_item(cart_id, item_id) 유니크 제약 추가");
+        }
+    }
+
+    //컬럼 목록(순서대로, 쉼표로 구분)이 정확히 같은 유니크 인덱스가 있는지
+    private boolean hasUniqueKey(String table, String columns) {
+        List<String> uniqueKeys = jdbcTemplate.queryForList(
+                "select group_concat(column_name order by seq_in_index) from information_schema.statistics " +
+                        "where table_schema = database() and table_name = ? and non_unique = 0 " +
+                        "group by index_name", String.class, table);
+        return uniqueKeys.contains(columns);
+    }
+
+    //한 회원의 장바구니가 여러 개면 가장 먼저 만든 장바구니로 상품을 옮기고 나머지 삭제
+    private void mergeDuplicateCarts() {
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(
+                "select member_id, min(cart_id) as keep_id from cart " +
+                        "group by member_id having count(*) > 1");
+
+        for (Map<String, Object> row : duplicates) {
+            Object memberId = row.get("member_id");
+            Object keepId = row.get("keep_id");
+            jdbcTemplate.update("update cart_item set cart_id = ? " +
+                    "where cart_id in (select cart_id from cart where member_id = ? and cart_id <> ?)", keepId, memberId, keepId);
+            jdbcTemplate.update("delete from cart where member_id = ? and cart_id <> ?", memberId, keepId);
+        }
+        if (!duplicates.isEmpty()) {
+            log.warn("중복 장바구니 합침 (회원 수: {})", duplicates.size());
+        }
+    }
+
+    //한 장바구니에 같은 상품이 여러 줄이면 가장 먼저 담은 줄에 수량을 더하고 나머지 삭제
+    private void mergeDuplicateCartItems() {
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(
+                "select cart_id, item_id, min(cart_item_id) as keep_id, sum(count) as total_count from cart_item " +
+                        "group by cart_id, item_id having count(*) > 1");
+
+        for (Map<String, Object> row : duplicates) {
+            Object keepId = row.get("keep_id");
+            jdbcTemplate.update("update cart_item set count = ? where cart_item_id = ?", row.get("total_count"), keepId);
+            jdbcTemplate.update("delete from cart_item where cart_id = ? and item_id = ? and cart_item_id <> ?",
+                    row.get("cart_id"), row.get("item_id"), keepId);
+        }
+        if (!duplicates.isEmpty()) {
+            log.warn("중복 장바구니 상품 합침 (줄 수: {})", duplicates.size());
+        }
+    }
+}
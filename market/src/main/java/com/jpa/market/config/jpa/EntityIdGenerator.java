@@ -0,0 +1,29 @@
+package com.jpa.market.config.jpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Component;
+
+//엔티티를 저장하지 않고 id만 미리 받아오기 (JDBC/native 쿼리로 직접 insert할 때 사용)
+//Hibernate가 엔티티를 저장할 때 쓰는 id 생성기(id_sequence 테이블)를 그대로 사용하므로 JPA로 저장한 행과 id가 겹치지 않음
+//대부분은 미리 받아둔 범위(ALLOCATION_SIZE)에서 나눠주므로 DB에 가지 않음
+@Component
+public class EntityIdGenerator {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public EntityIdGenerator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public Long nextId(Class<?> entityClass) {
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entityClass).getGenerator();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.jpa.market.config.jpa;
+
+import com.jpa.market.entity.IdSequence;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+//서버 시작 시 id_sequence 테이블 값을 각 테이블의 최대 id 이후로 맞춤
+//IDENTITY(auto_increment)로 만들어진 기존 데이터가 있거나 JDBC로 직접 넣은 행이 있어도 id가 겹치지 않도록 함
+//EntityManagerFactory가 만들어진 후(ddl-auto로 id_sequence 테이블이 생긴 후), 요청을 받기 전에 실행됨
+@Slf4j
+@Component
+public class IdSequenceInitializer {
+
+    //id_sequence의 sequence_name -> (테이블, id 컬럼)
+    private static final Map<String, String[]> SEGMENTS = Map.of(
+            "item", new String[]{"item", "item_id"},
+            "item_img", new String[]{"item_img", "item_img_id"},
+            "member", new String[]{"member", "member_id"},
+            "orders", new String[]{"orders", "order_id"},
+            "order_item", new String[]{"order_item", "order_item_id"},
+            "cart", new String[]{"cart", "cart_id"},
+            "cart_item", new String[]{"cart_item", "cart_item_id"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //EntityManagerFactory를 주입받아서 스키마 생성(ddl-auto) 이후에 실행되도록 함
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //next_val을 (최대 id + ALLOCATION_SIZE + 1) 이상으로 올림. 이미 더 크면 그대로 둠
+    //Hibernate는 next_val에서 ALLOCATION_SIZE만큼 아래 값부터 나눠주므로 최대 id보다 큰 값만 나옴
+    @PostConstruct
+    public void initialize() {
+        SEGMENTS.forEach((segment, table) -> {
+            jdbcTemplate.update("insert into " + IdSequence.TABLE +
+                            " (" + IdSequence.PK_COLUMN + ", " + IdSequence.VALUE_COLUMN + ") " +
+                            "select ?, coalesce(max(" + table[1] + "), 0) + ? from " + table[0] + " " +
+                            "on duplicate key update " + IdSequence.VALUE_COLUMN + " = greatest(" +
+                            IdSequence.VALUE_COLUMN + ", values(" + IdSequence.VALUE_COLUMN + "))",
+                    segment, IdSequence.ALLOCATION_SIZE + 1);
+        });
+        log.info("id_sequence 초기화 완료");
+    }
+}
@@ -0,0 +1,11 @@
+package com.jpa.market.config.scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//@Scheduled 메서드(주기적으로 실행되는 작업)를 사용하기 위한 설정
+//예) 인기 상품 재고 차감분을 모아서 DB에 반영하는 작업
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,40 @@
+package com.jpa.market.config.security;
+
+import com.jpa.market.service.GuestCartService;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+//소셜 로그인 성공 시 비회원 장바구니를 회원 장바구니에 합친 뒤 기존처럼 "/"(또는 로그인 전에 요청한 주소)로 이동
+//일반 로그인은 MemberController.login에서 합침
+@Component
+public class GuestCartLoginSuccessHandler extends SavedRequestAwareAuthenticationSuccessHandler {
+
+    private final GuestCartService guestCartService;
+
+    public GuestCartLoginSuccessHandler(GuestCartService guestCartService) {
+        this.guestCartService = guestCartService;
+        setDefaultTargetUrl("/");
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws ServletException, IOException {
+
+        // 소셜 회원의 로그인 ID(KAKAO_123 형태)는 CustomOAuth2UserService가 loginId 속성에 넣어둠
+        String loginId = authentication.getName();
+        if (authentication.getPrincipal() instanceof OAuth2User oAuth2User
+                && oAuth2User.getAttribute("loginId") != null) {
+            loginId = oAuth2User.getAttribute("loginId");
+        }
+        guestCartService.mergeOnLogin(loginId, request, response);
+
+        super.onAuthenticationSuccess(request, response, authentication);
+    }
+}
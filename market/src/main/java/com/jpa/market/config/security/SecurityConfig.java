@@ -22,7 +22,8 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http, CustomOAuth2UserService customOAuth2UserService) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http, CustomOAuth2UserService customOAuth2UserService,
+                                   GuestCartLoginSuccessHandler guestCartLoginSuccessHandler) throws Exception {
 
         http
                 //post는 csrf보호해야 한다고 했었는데
@@ -48,6 +49,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/main/**", "/api/items/**").permitAll()
                         .requestMatchers("/api/members/login", "/api/members/join").permitAll()
+                        // 비회원 장바구니 (쿠키에만 저장)
+                        .requestMatchers("/api/guest-cart/**").permitAll()
                         // 이미지 파일 경로 (리액트에서 엑박 뜨지 않게 허용)
                         .requestMatchers("/images/**", "/**/*.html", "/", "/health").permitAll()
                         // ⭐ 기존 방법 변경하기
@@ -84,7 +87,8 @@ public class SecurityConfig {
                         .userInfoEndpoint(userInfo -> userInfo
                                 .userService(customOAuth2UserService) // 내가 만든 서비스 등록
                         )
-                        .defaultSuccessUrl("/") // 성공 시 이동할 주소
+                        // 성공 시 비회원 장바구니를 합친 뒤 "/"로 이동
+                        .successHandler(guestCartLoginSuccessHandler)
                 )
 
 
@@ -127,7 +131,7 @@ public class SecurityConfig {
         //3000번 포트에서 오는 요청만 신뢰하겠다고 지정
         config.setAllowedOrigins(List.of("http://localhost:3000"));
         //: GET, POST 등 어떤 방식의 요청을 허용할지 정의
-        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         //어떤 헤더 정보든 다 받겠다고 설정
         config.setAllowedHeaders(List.of("*"));
         //리액트와 스프링이 세션 쿠키를 주고받으려면 이 설정이 반드시 true여야 합니다.
@@ -0,0 +1,7 @@
+package com.jpa.market.constant;
+
+//비동기 주문 접수증(ticket) 상태
+//QUEUED : 대기열에서 처리를 기다리는 중, COMPLETED : 주문 생성 완료, FAILED : 재고 부족 등으로 주문 실패
+public enum OrderTicketStatus {
+    QUEUED, COMPLETED, FAILED
+}
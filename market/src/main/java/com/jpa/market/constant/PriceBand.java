@@ -0,0 +1,23 @@
+package com.jpa.market.constant;
+
+import lombok.Getter;
+
+//상품 가격대 (검색 필터와 가격대별 개수 집계에 사용)
+//min 이상 max 미만, max가 null이면 상한 없음
+@Getter
+public enum PriceBand {
+    UNDER_10K(0, 10000),
+    FROM_10K_TO_30K(10000, 30000),
+    FROM_30K_TO_50K(30000, 50000),
+    FROM_50K_TO_100K(50000, 100000),
+    OVER_100K(100000, null);
+
+    private final int min;
+
+    private final Integer max;
+
+    PriceBand(int min, Integer max) {
+        this.min = min;
+        this.max = max;
+    }
+}
@@ -3,7 +3,9 @@ package com.jpa.market.controller;
 import com.jpa.market.dto.CartDetailDto;
 import com.jpa.market.dto.CartItemDto;
 import com.jpa.market.dto.CartOrderDto;
+import com.jpa.market.dto.CartUpdateDto;
 import com.jpa.market.service.CartService;
+import com.jpa.market.service.OrderPipeline;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -24,6 +26,7 @@ import java.util.List;
 public class CartController {
 
     private final CartService cartService;
+    private final OrderPipeline orderPipeline;
 
     @PostMapping
     public ResponseEntity<?> addCartItem(@RequestBody @Valid CartItemDto cartItemDto,
@@ -56,6 +59,20 @@ public class CartController {
         return ResponseEntity.ok(cartItemId);
     }
 
+    /**
+     * 장바구니 일괄 수정 API
+     * 화면에서 바꾼 수량들과 삭제한 상품들을 한 번에 받아서 한 트랜잭션으로 처리합니다.
+     */
+    @PatchMapping
+    public ResponseEntity<?> updateCartItems(@RequestBody @Valid CartUpdateDto cartUpdateDto,
+                                             Principal principal) {
+
+        cartService.updateCartItems(cartUpdateDto.getCounts(), cartUpdateDto.getDeleteCartItemIds(),
+                principal.getName());
+
+        return ResponseEntity.ok().build();
+    }
+
     @DeleteMapping("/{cartItemId}")
     public ResponseEntity<?> deleteCartItem(@PathVariable("cartItemId") Long cartItemId,
                                             Principal principal) {
@@ -66,6 +83,17 @@ public class CartController {
         return ResponseEntity.ok(cartItemId);
     }
 
+    /**
+     * 장바구니 주문 미리보기 API
+     * 주문하기 전에 선택한 상품의 현재 가격/재고/판매상태와 주문 가능 여부를 확인합니다. (아무것도 저장하지 않음)
+     */
+    @PostMapping("/quote")
+    public ResponseEntity<?> quoteCartOrder(@RequestBody CartOrderDto cartOrderDto,
+                                            Principal principal) {
+
+        return ResponseEntity.ok(cartService.quoteCartOrder(cartOrderDto.getCartItemIds(), principal.getName()));
+    }
+
     /**
      * 장바구니 상품 주문 API
      * 리액트에서 선택된 장바구니 ID 리스트를 받아 주문을 생성합니다.
@@ -74,6 +102,12 @@ public class CartController {
     public ResponseEntity<?> orderCartItem(@RequestBody CartOrderDto cartOrderDto,
                                            Principal principal) {
 
+        // 비동기 주문 대기열을 사용하면 접수증만 받고 바로 응답 (202)
+        if (orderPipeline.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(cartService.queueCartOrder(cartOrderDto.getCartItemIds(), principal.getName()));
+        }
+
         // 2. 서비스 호출 (주문 생성 + 장바구니 비우기)
         // 결과값으로 생성된 주문 ID를 받습니다.
         Long orderId = cartService.orderCartItem(cartOrderDto.getCartItemIds(), principal.getName());
@@ -0,0 +1,53 @@
+package com.jpa.market.controller;
+
+import com.jpa.market.dto.CartItemDto;
+import com.jpa.market.service.GuestCartService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+//비회원 장바구니 (로그인 없이 사용, 쿠키에만 저장)
+//로그인하면 회원 장바구니(/api/cart)에 합쳐짐
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/guest-cart")
+public class GuestCartController {
+
+    private final GuestCartService guestCartService;
+
+    @GetMapping
+    public ResponseEntity<?> getCartList(HttpServletRequest request) {
+        return ResponseEntity.ok(guestCartService.getItems(request));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> addCartItem(@RequestBody @Valid CartItemDto cartItemDto,
+                                         HttpServletRequest request, HttpServletResponse response) {
+
+        guestCartService.addItem(cartItemDto.getItemId(), cartItemDto.getCount(), request, response);
+
+        return ResponseEntity.ok(cartItemDto.getItemId());
+    }
+
+    @PatchMapping("/{itemId}")
+    public ResponseEntity<?> updateCartItem(@PathVariable("itemId") Long itemId,
+                                            @RequestParam("count") int count,
+                                            HttpServletRequest request, HttpServletResponse response) {
+
+        guestCartService.updateCount(itemId, count, request, response);
+
+        return ResponseEntity.ok(itemId);
+    }
+
+    @DeleteMapping("/{itemId}")
+    public ResponseEntity<?> deleteCartItem(@PathVariable("itemId") Long itemId,
+                                            HttpServletRequest request, HttpServletResponse response) {
+
+        guestCartService.removeItem(itemId, request, response);
+
+        return ResponseEntity.ok(itemId);
+    }
+}
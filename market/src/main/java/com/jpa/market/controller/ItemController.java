@@ -3,6 +3,7 @@ package com.jpa.market.controller;
 import com.jpa.market.dto.ItemAdminListDto;
 import com.jpa.market.dto.ItemFormDto;
 import com.jpa.market.dto.ItemSearchDto;
+import com.jpa.market.dto.ItemSuggestDto;
 import com.jpa.market.entity.Item;
 import com.jpa.market.service.ItemService;
 import jakarta.persistence.EntityNotFoundException;
@@ -11,9 +12,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
@@ -60,15 +64,41 @@ public class ItemController {
 //        }
     }
 
+    //여러 상품 상세를 한 번에 조회 (/api/items?ids=1,2,3)
+    //비교하기/찜 목록처럼 상품 여러 개를 보여줄 때 상세 조회를 반복 호출하지 않도록 사용
+    //없는 상품이 하나라도 있으면 404
+    @GetMapping("/items")
+    public ResponseEntity<List<ItemFormDto>> getItemDetails(@RequestParam("ids") List<Long> ids) {
+        return ResponseEntity.ok(itemService.getItemDetails(ids));
+    }
+
+    //검색창 자동완성 (/api/items/suggest?q=사과&limit=10)
+    //입력한 글자로 시작하는 상품명을 주문이 많은 순으로 반환
+    @GetMapping("/items/suggest")
+    public ResponseEntity<List<ItemSuggestDto>> suggest(@RequestParam(value = "q", defaultValue = "") String q,
+                                                        @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(itemService.getSuggestions(q, limit));
+    }
+
     // 상품 상세 조회 (수정 페이지용 GET)
     //? : 아직 무슨 타입이 올지 정확히 모르겠지만, 일단 다 받아줄게
     //성공 시: ItemFormDto 객체를 JSON으로 변환해서 보냄
     //실패 시: "에러 발생" 같은 String 메시지를 보냄 둘 다 가능해집니다.
+    //If-None-Match로 보낸 ETag가 현재 상품 버전과 같으면 상세 조회/변환 없이 304만 응답
     @GetMapping("/items/{itemId}")
-    public ResponseEntity<?> getItemDetail(@PathVariable("itemId") Long itemId) {
+    public ResponseEntity<?> getItemDetail(@PathVariable("itemId") Long itemId, WebRequest webRequest) {
 //        try {
+            String eTag = itemService.getItemDetailETag(itemId);
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+
             ItemFormDto itemFormDto = itemService.getItemDetail(itemId);
-            return ResponseEntity.ok(itemFormDto);
+            //no-cache : 클라이언트가 저장은 하되 사용할 때마다 ETag로 변경 여부를 확인하도록 함
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(eTag)
+                    .body(itemFormDto);
 
 //        } catch (EntityNotFoundException e) {
 //            // 상품이 없을 경우 404 에러
@@ -106,7 +136,9 @@ public class ItemController {
     public ResponseEntity<Page<ItemAdminListDto>> itemManage(ItemSearchDto itemSearchDto,
                                                              //@PathVariable : url 경로{page}의 값을 받아옴
                                                              //Optional : 선택적으로 존재할 수 있음.
-                                                             @PathVariable("page") Optional<Integer> page) {
+                                                             @PathVariable("page") Optional<Integer> page,
+                                                             //true면 전체 개수를 세지 않음 (다음 페이지 여부만 정확)
+                                                             @RequestParam(value = "approxCount", defaultValue = "false") boolean approxCount) {
 
         // 리액트에서 페이지 번호는 보통 1부터 시작하므로,
         // 서버에서 (page - 1) 처리를 해주는 것이 일반적이지만
@@ -114,13 +146,45 @@ public class ItemController {
         Pageable pageable = PageRequest.of(page.orElse(0), 5);
 
         //조회할 조건과 페이지에 대한 정보를 매개변수로 넘겨서 page객체 반환받음
-        Page<ItemAdminListDto> items = itemService.getAdminItemPage(itemSearchDto, pageable);
+        Page<ItemAdminListDto> items = itemService.getAdminItemPage(itemSearchDto, pageable, approxCount);
 
         // 3. 리액트로 데이터와 상태 코드 반환
         return ResponseEntity.ok(items);
 
     }
 
+    //상품 관리 페이지 + 사이드바 필터용 조건별 상품 개수를 한 번에 조회 (/api/admin/items/facets?page=0)
+    //판매상태/등록일/가격대별 개수는 하나의 집계 쿼리로 계산됨
+    @GetMapping("/admin/items/facets")
+    public ResponseEntity<Map<String, Object>> itemManageWithFacets(ItemSearchDto itemSearchDto,
+                                                                    @RequestParam("page") Optional<Integer> page,
+                                                                    @RequestParam(value = "approxCount", defaultValue = "false") boolean approxCount) {
+
+        Pageable pageable = PageRequest.of(page.orElse(0), 5);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", itemService.getAdminItemPage(itemSearchDto, pageable, approxCount));
+        response.put("facets", itemService.getAdminItemFacets(itemSearchDto));
+
+        return ResponseEntity.ok(response);
+    }
+
+    //상품 관리 페이지의 무한 스크롤용 API (/api/admin/items/scroll?afterId=123)
+    //offset 대신 마지막으로 받은 상품 id(커서)를 기준으로 다음 데이터를 조회함
+    @GetMapping("/admin/items/scroll")
+    public ResponseEntity<Map<String, Object>> itemManageScroll(ItemSearchDto itemSearchDto,
+                                                                @RequestParam("afterId") Optional<Long> afterId) {
+
+        Slice<ItemAdminListDto> items = itemService.getAdminItemSlice(itemSearchDto, afterId.orElse(null), 5);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        // 다음 페이지가 없으면 null
+        response.put("nextCursor", items.hasNext() ? items.getContent().get(items.getNumberOfElements() - 1).getId() : null);
+
+        return ResponseEntity.ok(response);
+    }
+
 }
 
 
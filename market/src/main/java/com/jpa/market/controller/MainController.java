@@ -7,11 +7,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -37,10 +41,21 @@ public class MainController {
 
     @GetMapping // 이제 주소는 /api/main 이 됩니다.
     public ResponseEntity<Map<String, Object>> getMainPage(ItemSearchDto itemSearchDto,
-                                                           @RequestParam("page") Optional<Integer> page) {
+                                                           @RequestParam("page") Optional<Integer> page,
+                                                           //true면 전체 개수를 세지 않음 (다음 페이지 여부만 정확)
+                                                           @RequestParam(value = "approxCount", defaultValue = "false") boolean approxCount,
+                                                           //true면 사이드바 필터용 조건별 상품 개수도 같이 응답
+                                                           @RequestParam(value = "facets", defaultValue = "false") boolean facets,
+                                                           WebRequest webRequest) {
+
+        //상품 목록이 바뀌지 않았으면(If-None-Match가 현재 ETag와 같으면) 조회 없이 304 응답
+        String eTag = itemService.getMainPageETag(itemSearchDto);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
 
         Pageable pageable = PageRequest.of(page.orElse(0), 6);
-        Page<MainItemDto> items = itemService.getMainItemPage(itemSearchDto, pageable);
+        Page<MainItemDto> items = itemService.getMainItemPage(itemSearchDto, pageable, approxCount);
 
         Map<String, Object> response = new HashMap<>();
 
@@ -48,10 +63,33 @@ public class MainController {
         response.put("items", items);
         response.put("maxPage", 5);
 
+        if (facets) {
+            response.put("facets", itemService.getMainItemFacets(itemSearchDto));
+        }
+
         // 2. 추가하고 싶은 데이터들 (필요할 때 바로 추가 가능)
         response.put("userRole", "USER"); // 예시: 권한 정보
         response.put("isEventActive", true); // 예시: 이벤트 진행 여부
 
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(response);
+    }
+
+    //무한 스크롤용 API (/api/main/scroll?afterId=123)
+    //첫 요청은 afterId 없이 보내고, 이후에는 응답의 nextCursor 값을 afterId로 보내면 됨
+    @GetMapping("/scroll")
+    public ResponseEntity<Map<String, Object>> getMainScroll(ItemSearchDto itemSearchDto,
+                                                             @RequestParam("afterId") Optional<Long> afterId) {
+
+        Slice<MainItemDto> items = itemService.getMainItemSlice(itemSearchDto, afterId.orElse(null), 6);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        // 다음 페이지가 없으면 null
+        response.put("nextCursor", items.hasNext() ? items.getContent().get(items.getNumberOfElements() - 1).getId() : null);
+
         return ResponseEntity.ok(response);
     }
 }
@@ -3,8 +3,10 @@ package com.jpa.market.controller;
 import com.jpa.market.dto.LoginRequestDto;
 import com.jpa.market.dto.MemberJoinDto;
 import com.jpa.market.entity.Member;
+import com.jpa.market.service.GuestCartService;
 import com.jpa.market.service.MemberService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class MemberController {
 
     private final MemberService memberService;
+    private final GuestCartService guestCartService;
 
     //"인증(Authentication)을 총괄하는 관리자(Manager)" 역할
     //SecurityConfig에 등록함
@@ -43,7 +46,8 @@ public class MemberController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequestDto request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> login(@RequestBody LoginRequestDto request, HttpServletRequest httpRequest,
+                                   HttpServletResponse httpResponse) {
         try {
             // 1. 로그인 시도용 토큰 생성 (아직 인증 X)
             //      "여기 이 정보(Id/Pw) 담긴 종이(Token)가 있습니다. 확인해 주세요."
@@ -66,6 +70,9 @@ public class MemberController {
             //로그인 후에 작업할 때 '이 세션은 로그인된 유저구나!'라고 써먹을 수 있음.
             session.setAttribute("SPRING_SECURITY_CONTEXT", SecurityContextHolder.getContext());
 
+            // 비회원일 때 담아둔 장바구니를 회원 장바구니에 합침 (실패해도 로그인은 성공)
+            guestCartService.mergeOnLogin(authentication.getName(), httpRequest, httpResponse);
+
             // 5. 리액트를 위해 사용자 정보 응답
             // authentication.getName()은 우리가 설정한 LoginId를 반환합니다.
             return ResponseEntity.ok().body(java.util.Map.of(
@@ -1,7 +1,11 @@
 package com.jpa.market.controller;
 
+import com.jpa.market.dto.MemberOrderSummaryDto;
 import com.jpa.market.dto.OrderDto;
 import com.jpa.market.dto.OrderHistDto;
+import com.jpa.market.dto.OrderTicketDto;
+import com.jpa.market.dto.QueuedOrderDto;
+import com.jpa.market.service.OrderPipeline;
 import com.jpa.market.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +29,7 @@ import java.util.Optional;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderPipeline orderPipeline;
 
     @PostMapping
     public ResponseEntity<?> order(@RequestBody @Valid OrderDto orderDto,
@@ -34,12 +39,32 @@ public class OrderController {
             // Principal.getName()은 사용자가 로그인할 때 썼던 LoginId를 반환함
             //(예외 발생 시 GlobalExceptionHandler가 처리)
             String loginId = principal.getName();
+
+            // 비동기 주문 대기열을 사용하면 접수증만 받고 바로 응답 (202). 결과는 /api/orders/tickets/{ticketId}로 조회
+            if (orderPipeline.isEnabled()) {
+                OrderTicketDto ticket = orderPipeline.submit(new QueuedOrderDto(loginId, List.of(orderDto), List.of()));
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+            }
+
             Long orderId = orderService.order(orderDto, loginId);
 
             // 3. 성공 시 생성된 주문번호(ID) 반환
             return ResponseEntity.ok(orderId);
     }
 
+    //내 주문 요약 (주문 건수, 총 주문 금액, 총 주문 수량). 주문 목록을 읽지 않고 요약 행 하나만 조회
+    @GetMapping("/summary")
+    public ResponseEntity<MemberOrderSummaryDto> orderSummary(Principal principal) {
+        return ResponseEntity.ok(orderService.getOrderSummary(principal.getName()));
+    }
+
+    //비동기 주문 접수증 조회 (QUEUED -> COMPLETED 또는 FAILED가 될 때까지 리액트에서 주기적으로 조회)
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<OrderTicketDto> orderTicket(@PathVariable("ticketId") String ticketId,
+                                                      Principal principal) {
+        return ResponseEntity.ok(orderPipeline.getTicket(ticketId, principal.getName()));
+    }
+
     // 매핑에 "" 이거 안넣어두면 /api/orders로 매핑이 안됨
     // /{page}만 들어가게되어서 무조건 page있는걸로 받아옴
     @GetMapping(value = {"", "/{page}"})
@@ -0,0 +1,18 @@
+package com.jpa.market.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+//장바구니 상품 수량 변경 한 건 (장바구니 일괄 수정용)
+@Getter
+@Setter
+public class CartCountDto {
+
+    @NotNull(message = "장바구니 상품 아이디는 필수 입력 값입니다.")
+    private Long cartItemId;
+
+    @Min(value = 1, message = "최소 1개 이상의 수량을 입력해주세요.")
+    private int count;
+}
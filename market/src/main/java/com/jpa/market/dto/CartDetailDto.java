@@ -1,5 +1,6 @@
 package com.jpa.market.dto;
 
+import com.jpa.market.constant.ItemSellStatus;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -11,18 +12,34 @@ public class CartDetailDto {
 
     private String itemName; // 상품명
 
-    private int price; // 상품 금액
+    private int price; // 상품 금액 (현재 가격)
 
     private int count; // 수량
 
     private String imgUrl; // 상품 이미지 경로
 
+    private int stockNumber; // 현재 재고 수량
+
+    private ItemSellStatus itemSellStatus; // 현재 판매 상태
+
+    private Integer addedPrice; // 장바구니에 담을 때의 가격 (가격 기록 전에 담은 상품은 null)
+
+    private boolean priceChanged; // 담은 후에 가격이 바뀌었는지
+
+    private boolean orderable; // 판매중이고 재고가 담은 수량 이상인지 (주문 전에 화면에서 미리 확인)
+
 //    // [중요] JPQL에서 'new'로 조회할 때 이 생성자 순서와 파라미터가 쿼리와 일치해야 합니다.
-    public CartDetailDto(Long cartItemId, String itemName, int price, int count, String imgUrl) {
+    public CartDetailDto(Long cartItemId, String itemName, int price, int count, String imgUrl,
+                         int stockNumber, ItemSellStatus itemSellStatus, Integer addedPrice) {
         this.cartItemId = cartItemId;
         this.itemName = itemName;
         this.price = price;
         this.count = count;
         this.imgUrl = imgUrl;
+        this.stockNumber = stockNumber;
+        this.itemSellStatus = itemSellStatus;
+        this.addedPrice = addedPrice;
+        this.priceChanged = addedPrice != null && addedPrice != price;
+        this.orderable = itemSellStatus == ItemSellStatus.SELL && stockNumber >= count;
     }
 }
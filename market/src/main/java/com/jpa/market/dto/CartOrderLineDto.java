@@ -0,0 +1,29 @@
+package com.jpa.market.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+//장바구니 주문 시 검증용으로 조회하는 장바구니 상품 한 줄 (JPQL에서 바로 DTO로 조회)
+@Getter
+@Setter
+public class CartOrderLineDto {
+
+    private Long cartItemId;
+
+    private Long itemId;
+
+    private int count;
+
+    private Integer addedPrice; // 담을 때의 가격 (메모리 장바구니를 채울 때만 조회)
+
+    public CartOrderLineDto(Long cartItemId, Long itemId, int count) {
+        this.cartItemId = cartItemId;
+        this.itemId = itemId;
+        this.count = count;
+    }
+
+    public CartOrderLineDto(Long cartItemId, Long itemId, int count, Integer addedPrice) {
+        this(cartItemId, itemId, count);
+        this.addedPrice = addedPrice;
+    }
+}
@@ -0,0 +1,27 @@
+package com.jpa.market.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+//장바구니 주문 미리보기 결과 (주문을 만들거나 재고를 차감하지 않음)
+@Getter
+@Setter
+public class CartQuoteDto {
+
+    private List<CartDetailDto> items; // 선택한 장바구니 상품 (현재 가격/재고/판매상태 포함)
+
+    private long totalPrice; // 현재 가격 기준 총 주문 금액
+
+    private boolean orderable; // 모든 상품이 주문 가능한지 (false면 주문해도 재고 부족 등으로 실패함)
+
+    private boolean priceChanged; // 담은 후에 가격이 바뀐 상품이 있는지
+
+    public CartQuoteDto(List<CartDetailDto> items) {
+        this.items = items;
+        this.totalPrice = items.stream().mapToLong(item -> (long) item.getPrice() * item.getCount()).sum();
+        this.orderable = items.stream().allMatch(CartDetailDto::isOrderable);
+        this.priceChanged = items.stream().anyMatch(CartDetailDto::isPriceChanged);
+    }
+}
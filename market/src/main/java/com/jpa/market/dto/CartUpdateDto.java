@@ -0,0 +1,21 @@
+package com.jpa.market.dto;
+
+import jakarta.validation.Valid;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//장바구니 일괄 수정 (화면에서 "장바구니 수정" 한 번에 바뀐 수량과 삭제한 상품을 모아서 전송)
+@Getter
+@Setter
+public class CartUpdateDto {
+
+    //수량을 바꾼 장바구니 상품들
+    @Valid
+    private List<CartCountDto> counts = new ArrayList<>();
+
+    //삭제할 장바구니 상품 번호들
+    private List<Long> deleteCartItemIds = new ArrayList<>();
+}
@@ -0,0 +1,27 @@
+package com.jpa.market.dto;
+
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.constant.PriceBand;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//검색 화면 필터 사이드바에 표시할 조건별 상품 개수
+//각 항목의 개수는 "그 항목을 선택했을 때 나오는 상품 수"
+//  -> 자기 자신의 조건(예: 판매상태 개수를 셀 때는 판매상태 조건)만 빼고 나머지 검색 조건은 모두 적용
+@Getter
+@Setter
+public class ItemFacetDto {
+
+    //판매상태별 개수
+    private Map<ItemSellStatus, Long> sellStatus = new EnumMap<>(ItemSellStatus.class);
+
+    //등록일 조건별 개수 (all, 1d, 1w, 1m, 6m)
+    private Map<String, Long> dateType = new LinkedHashMap<>();
+
+    //가격대별 개수
+    private Map<PriceBand, Long> priceBand = new EnumMap<>(PriceBand.class);
+}
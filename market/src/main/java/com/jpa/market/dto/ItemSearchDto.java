@@ -1,9 +1,14 @@
 package com.jpa.market.dto;
 
 import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.constant.PriceBand;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
 @Getter
 @Setter
 public class ItemSearchDto {
@@ -15,10 +20,41 @@ public class ItemSearchDto {
     //상품의 판매 상태를 기준으로 조회
     private ItemSellStatus searchSellStatus;
 
+    //상품의 가격대를 기준으로 조회
+    private PriceBand searchPriceBand;
+
     //상품을 조회할때의 유형(상품명 또는 상품을 등록한 사람의 아이디)
     private String searchBy;
 
     //조회할 검색어를 저장하는 변수
     private String searchQuery = "";
 
+    //등록일 조건의 기준 시간
+    //LocalDateTime.now()를 그대로 쓰면 요청마다 조건이 달라져서 결과를 캐시할 수 없으므로
+    //1분 단위로 잘라서 같은 1분 안의 요청은 완전히 같은 쿼리가 되도록 함
+    public static LocalDateTime searchBaseTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    //캐시 키로 쓰기 위해 검색 조건을 하나의 문자열로 만듦
+    //결과가 같은 조건은 같은 키가 되도록 정리함 (null과 all은 같음, 검색어 대소문자 무시)
+    //날짜 조건이 있으면 기준 시간(1분 단위)도 키에 포함
+    public String toFilterKey() {
+        String dateType = (searchDateType == null || "all".equals(searchDateType))
+                ? "all" : searchDateType + "@" + searchBaseTime();
+        String sellStatus = (searchSellStatus == null) ? "" : searchSellStatus.name();
+        String priceBand = (searchPriceBand == null) ? "" : searchPriceBand.name();
+        String by = (searchBy == null) ? "" : searchBy;
+        String query = (searchQuery == null) ? "" : searchQuery.toLowerCase(Locale.ROOT);
+
+        return dateType + "|" + sellStatus + "|" + priceBand + "|" + by + "|" + query;
+    }
+
+    //상품을 수정하면 결과가 달라질 수 있는 조건(판매상태, 가격대, 검색어)이 하나라도 있는지
+    //등록일은 수정으로 바뀌지 않으므로 포함하지 않음
+    public boolean hasEditableFieldFilter() {
+        return searchSellStatus != null || searchPriceBand != null
+                || (searchQuery != null && !searchQuery.trim().isEmpty());
+    }
+
 }
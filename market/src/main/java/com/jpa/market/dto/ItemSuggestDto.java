@@ -0,0 +1,16 @@
+package com.jpa.market.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+//검색창 자동완성 결과 한 건
+@Getter
+@Setter
+@AllArgsConstructor
+public class ItemSuggestDto {
+
+    private Long itemId;
+
+    private String itemName;
+}
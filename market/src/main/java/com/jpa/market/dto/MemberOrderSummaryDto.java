@@ -0,0 +1,18 @@
+package com.jpa.market.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+//회원 주문 요약 (취소된 주문 제외)
+@Getter
+@Setter
+@AllArgsConstructor
+public class MemberOrderSummaryDto {
+
+    private int orderCount;     //주문 건수
+
+    private long totalPrice;    //총 주문 금액
+
+    private long itemCount;     //총 주문 수량
+}
@@ -15,6 +15,8 @@ public class OrderHistDto {
     private Long orderId;      // 주문 아이디
     private String orderDate;  // 주문 날짜
     private OrderStatus orderStatus; // 주문 상태
+    private int totalPrice;    // 총 주문 금액 (주문에 저장된 값)
+    private int itemCount;     // 총 주문 수량
 
     // ⭐ 핵심: 주문 상품 리스트를 담고 있음 (작은 상자들)
     private List<OrderItemDto> orderItemDtoList = new ArrayList<>();
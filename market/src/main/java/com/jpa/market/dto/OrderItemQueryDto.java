@@ -0,0 +1,29 @@
+package com.jpa.market.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+//주문 내역 조회용 주문상품 한 줄 (JPQL에서 바로 DTO로 조회)
+//여러 주문의 주문상품을 한 번에 조회한 뒤 orderId로 주문별로 나눠 담기 위해 orderId를 같이 가짐
+@Getter
+@Setter
+public class OrderItemQueryDto {
+
+    private Long orderId;
+
+    private String itemName;
+
+    private int count;
+
+    private int orderPrice;
+
+    private String imgUrl;
+
+    public OrderItemQueryDto(Long orderId, String itemName, int count, int orderPrice, String imgUrl) {
+        this.orderId = orderId;
+        this.itemName = itemName;
+        this.count = count;
+        this.orderPrice = orderPrice;
+        this.imgUrl = imgUrl;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jpa.market.dto;
+
+import com.jpa.market.constant.OrderTicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+//비동기 주문 접수증 조회 결과
+//orderId는 COMPLETED일 때만, message는 FAILED일 때만 채워짐
+@Getter
+@Setter
+@AllArgsConstructor
+public class OrderTicketDto {
+
+    private String ticketId;
+
+    private OrderTicketStatus status;
+
+    private Long orderId;
+
+    private String message;
+}
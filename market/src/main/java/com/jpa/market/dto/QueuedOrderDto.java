@@ -0,0 +1,19 @@
+package com.jpa.market.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//주문 대기열에 들어가는 주문 한 건
+//cartItemIds : 장바구니에서 주문한 경우 주문이 만들어진 후 삭제할 장바구니 상품 (바로 구매는 빈 리스트)
+@Getter
+@AllArgsConstructor
+public class QueuedOrderDto {
+
+    private String loginId;
+
+    private List<OrderDto> orderDtoList;
+
+    private List<Long> cartItemIds;
+}
@@ -0,0 +1,47 @@
+package com.jpa.market.entity;
+
+import com.jpa.market.constant.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+//보관(archive)된 오래된 주문
+//OrderArchiveJob이 orders 테이블에서 그대로 옮겨오며, 옮긴 뒤에는 바뀌지 않음 (조회 전용)
+//orders 테이블과 컬럼이 같고, 연관관계 없이 id 값만 가짐 (외래키 없음)
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_member_order_date", columnList = "member_id, order_date")
+})
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+
+    private int totalPrice;
+
+    private int itemCount;
+
+    private LocalDateTime regTime;
+
+    private LocalDateTime updateTime;
+
+    private String createdBy;
+
+    private String modifiedBy;
+}
@@ -14,11 +14,14 @@ import lombok.ToString;
 public class Cart extends BaseEntity {
     @Id
     @Column(name = "cart_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_id_gen")
+    @TableGenerator(name = "cart_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "cart", allocationSize = IdSequence.ALLOCATION_SIZE)
     private Long id;
 
+    //회원당 장바구니는 하나 (동시에 만들어도 하나만 생기도록 유니크)
     @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name="member_id")
+    @JoinColumn(name="member_id", unique = true)
     private Member member;
 
     //Cart엔티티를 생성하는 메서드
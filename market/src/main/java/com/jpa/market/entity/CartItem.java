@@ -7,13 +7,19 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
-@Table(name = "cart_item")
+//한 장바구니에 같은 상품은 한 줄만 (장바구니별 상품 조회 / 이미 담긴 상품인지 확인하는 인덱스로도 사용)
+//담기는 이 제약을 이용해서 insert ... on duplicate key update 한 문장으로 처리 (JpaCartStore)
+@Table(name = "cart_item", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_item_cart_item", columnNames = {"cart_id", "item_id"})
+})
 @Getter
 @ToString
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class CartItem extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_item_id_gen")
+    @TableGenerator(name = "cart_item_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "cart_item", allocationSize = IdSequence.ALLOCATION_SIZE)
     @Column(name = "cart_item_id")
     private Long id;
 
@@ -27,6 +33,10 @@ public class CartItem extends BaseEntity {
 
     private int count;
 
+    //장바구니에 담을 때의 상품 가격 (장바구니 화면에서 가격이 바뀐 상품을 표시할 때 비교)
+    //이 컬럼이 생기기 전에 담긴 상품은 null
+    private Integer addedPrice;
+
     // --- 정적 생성 메서드 ---
     public static CartItem createCartItem(Cart cart, Item item, int count) {
 
@@ -38,6 +48,7 @@ public class CartItem extends BaseEntity {
         cartItem.cart = cart;
         cartItem.item = item;
         cartItem.count = count;
+        cartItem.addedPrice = item.getPrice();
         return cartItem;
     }
 
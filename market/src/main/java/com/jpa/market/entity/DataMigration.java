@@ -0,0 +1,25 @@
+package com.jpa.market.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+//한 번만 실행해야 하는 데이터 작업의 완료 기록
+//작업이 끝나면 이름으로 한 행을 남기고, 행이 있으면 다시 실행하지 않음 (테이블이 비어있는지로 판단하지 않음)
+@Entity
+@Table(name = "data_migration")
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DataMigration {
+
+    @Id
+    @Column(name = "migration_name")
+    private String name;
+
+    private LocalDateTime appliedAt;
+}
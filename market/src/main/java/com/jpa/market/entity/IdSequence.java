@@ -0,0 +1,21 @@
+package com.jpa.market.entity;
+
+//엔티티 id 생성용 테이블(id_sequence) 설정
+//IDENTITY(auto_increment)는 insert를 실행해야 id를 알 수 있어서 Hibernate가 insert를 묶어서(batch) 보내지 못함
+//id_sequence 테이블에서 ALLOCATION_SIZE개씩 id를 미리 받아와 메모리에서 나눠주므로
+//  -> persist 시점에 id가 정해지고, 같은 테이블 insert는 hibernate.jdbc.batch_size만큼 묶어서 전송됨
+//  -> id_sequence 조회/증가는 ALLOCATION_SIZE개마다 한 번
+//서버 시작 시 IdSequenceInitializer가 기존 데이터의 최대 id 이후부터 나눠주도록 맞춰줌
+public final class IdSequence {
+
+    public static final String TABLE = "id_sequence";
+
+    public static final String PK_COLUMN = "sequence_name";
+
+    public static final String VALUE_COLUMN = "next_val";
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdSequence() {
+    }
+}
@@ -11,7 +11,10 @@ import java.util.List;
 
 // 어노테이션 설명은 밑에!!!
 @Entity
-@Table(name = "item")
+//관리자 목록의 등록일 + 판매상태 조건용 인덱스
+@Table(name = "item", indexes = {
+        @Index(name = "idx_item_reg_time_sell_status", columnList = "reg_time, item_sell_status")
+})
 @Getter
 @ToString
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -25,7 +28,9 @@ public class Item extends BaseEntity {
 
     @Id    //테이블의 기본키로 지정
     @Column(name = "item_id")    //테이블에 매핑될 컬럼의 이름 설정(컬럼명이랑 다를떄만 설정)
-    @GeneratedValue(strategy = GenerationType.IDENTITY) //기본키 생성 전략을 AUTO로 지정함
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_id_gen") //기본키 생성 전략 : id_sequence 테이블에서 미리 받아온 값 사용 (insert 배치 가능)
+    @TableGenerator(name = "item_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "item", allocationSize = IdSequence.ALLOCATION_SIZE)
     private Long id; //--상품코드
 
     @Column(nullable = false, length = 50) //nullable : not null,
@@ -44,6 +49,13 @@ public class Item extends BaseEntity {
     @Enumerated(EnumType.STRING)   //enum 타입 매핑
     private ItemSellStatus itemSellStatus; //--상품 판매 상태
 
+    // 대표 이미지 정보 (item_img 테이블의 repImgYn = 'Y' 행을 복사해둔 값)
+    // 목록/장바구니/주문내역에서 대표 이미지 하나 때문에 item_img를 조인하지 않도록 상품에 같이 저장함
+    // ItemImgService에서 이미지를 저장/삭제할 때 함께 변경됨
+    private String repImgName; //--대표 이미지 파일명(S3 Key)
+
+    private String repImgUrl; //--대표 이미지 조회 경로
+
     // --- 여기를 추가해 주세요! ---
     // 양방향 매핑: ItemImg 엔티티에 있는 'item' 필드에 의해 매핑됨
     // cascade = CascadeType.ALL: 상품 저장할 때 이미지도 같이 저장됨
@@ -78,6 +90,12 @@ public class Item extends BaseEntity {
         // 여기서 this는 JPA가 DB에서 조회해온 바로 '그' 상품 객체를 가리킵니다.
     }
 
+    // 대표 이미지 변경 (이미지를 지울 때는 null로 변경)
+    public void updateRepImg(String repImgName, String repImgUrl) {
+        this.repImgName = repImgName;
+        this.repImgUrl = repImgUrl;
+    }
+
     // 1. 재고 감소 로직
     public void removeStock(int stockNumber) {
         int restStock = this.stockNumber - stockNumber;
@@ -5,7 +5,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "item_img")
+//상품별 이미지 조회 / 대표 이미지(repImgYn) 조회용 인덱스
+@Table(name = "item_img", indexes = {
+        @Index(name = "idx_item_img_item_rep", columnList = "item_id, rep_img_yn")
+})
 @Getter
 @ToString(exclude = "item") // 중요: 연관관계 필드는 ToString에서 제외
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -16,7 +19,9 @@ public class ItemImg extends BaseEntity {
 
     @Id
     @Column(name="item_img_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_img_id_gen")
+    @TableGenerator(name = "item_img_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "item_img", allocationSize = IdSequence.ALLOCATION_SIZE)
     private Long id;
 
     private String imgName; //이미지 파일명
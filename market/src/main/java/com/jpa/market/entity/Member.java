@@ -18,7 +18,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class Member extends BaseEntity {
     @Id
     @Column(name="member_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "member_id_gen")
+    @TableGenerator(name = "member_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "member", allocationSize = IdSequence.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -0,0 +1,33 @@
+package com.jpa.market.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+//회원별 주문 요약 (주문 건수, 총 주문 금액, 총 주문 수량)
+//주문/취소할 때 같은 트랜잭션에서 더하고 빼므로, 마이페이지/관리자 화면은 주문 목록을 다 읽지 않고 이 한 행만 조회
+//취소된 주문은 포함하지 않음
+//값은 MemberOrderSummaryRepository의 update 쿼리로만 바꿈 (엔티티를 조회해서 수정하면 동시 주문 시 값이 덮어써짐)
+@Entity
+@Table(name = "member_order_summary")
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberOrderSummary {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private int orderCount;     //주문 건수
+
+    private long totalPrice;    //총 주문 금액
+
+    private long itemCount;     //총 주문 수량
+
+    private LocalDateTime updateTime;
+}
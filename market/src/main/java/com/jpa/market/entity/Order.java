@@ -12,7 +12,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+//회원별 주문 목록을 주문일 최신순으로 조회할 때 정렬까지 인덱스로 처리
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_member_order_date", columnList = "member_id, order_date"),
+        //오래된 주문 보관 작업에서 보관할 마지막 주문 id를 찾을 때 사용
+        @Index(name = "idx_orders_order_date", columnList = "order_date")
+})
 @Getter
 //양방향 매핑에서 서로 호출하다 무한루프 발생.
 // 연관관계 필드 제외하기
@@ -20,7 +25,9 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order  extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_gen")
+    @TableGenerator(name = "order_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "orders", allocationSize = IdSequence.ALLOCATION_SIZE)
     @Column(name = "order_id")
     private Long id;
 
@@ -33,6 +40,13 @@ public class Order  extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private OrderStatus orderStatus; //주문상태
 
+    //총 주문 금액 (주문상품 orderPrice 합계)
+    //주문상품을 매번 지연 로딩해서 더하지 않도록 주문 생성 시 저장해둠
+    private int totalPrice;
+
+    //총 주문 수량 (주문상품 count 합계)
+    private int itemCount;
+
     // --- 양방향 관계 설정 ---
     // orphanRemoval = true: OrderItem 리스트에서 제거된 객체는 DB에서도 삭제
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
@@ -50,6 +64,9 @@ public class Order  extends BaseEntity {
 
         //개발자가 실수로 자식에게 부모를 알려주지 않는 일을 방지
         orderItem.setOrder(this);       // 2. OrderItem이 부모를 알게 함 (DB 외래키 저장용)
+
+        this.totalPrice += orderItem.getOrderPrice(); // 3. 총 주문 금액/수량 누적
+        this.itemCount += orderItem.getCount();
     }
 
     // --- 정적 생성 메서드 ---
@@ -60,8 +77,10 @@ public class Order  extends BaseEntity {
 
         // 전달받은 여러 개의 주문 상품(OrderItem)을 하나씩 Order에 담습니다.
         // 이 과정에서 addOrderItem()이 호출되어 양방향 연결이 완성됩니다.
-        for (OrderItem orderItem : orderItemList) {
-            order.addOrderItem(orderItem);
+        if (orderItemList != null) {
+            for (OrderItem orderItem : orderItemList) {
+                order.addOrderItem(orderItem);
+            }
         }
 
         order.orderStatus = OrderStatus.ORDER;
@@ -69,16 +88,8 @@ public class Order  extends BaseEntity {
         return order;
     }
 
-    // [추가] 전체 주문 금액을 계산하는 메서드 (리액트에서 총 결제 금액 보여줄 때 유용함)
-    public int getTotalPrice() {
-        int totalPrice = 0;
-        for (OrderItem orderItem : orderItems) {
-            //totalPrice += orderItem.getTotalPrice(); // OrderItem의 계산 메서드 호출
-            totalPrice += orderItem.getOrderPrice(); // OrderItem의 계산 메서드 호출
-
-        }
-        return totalPrice;
-    }
+    // [추가] 전체 주문 금액 (리액트에서 총 결제 금액 보여줄 때 유용함)
+    // 주문상품을 돌면서 계산하지 않고 저장해둔 totalPrice를 사용 (Lombok @Getter)
 
     public void cancelOrder() {
         this.orderStatus = OrderStatus.CANCEL; // 주문 상태 변경
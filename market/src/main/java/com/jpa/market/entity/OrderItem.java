@@ -15,7 +15,9 @@ import lombok.*;
 @Builder
 public class OrderItem  extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id_gen")
+    @TableGenerator(name = "order_item_id_gen", table = IdSequence.TABLE, pkColumnName = IdSequence.PK_COLUMN,
+            valueColumnName = IdSequence.VALUE_COLUMN, pkColumnValue = "order_item", allocationSize = IdSequence.ALLOCATION_SIZE)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -58,6 +60,21 @@ public class OrderItem  extends BaseEntity {
         return orderItem;
     }
 
+    //재고 차감 없이 주문상품만 생성
+    //재고는 InventoryService에서 update 한 문장으로 먼저 차감한 경우에 사용
+    public static OrderItem createReservedOrderItem(Item item, int count) {
+
+        if (count < 1) {
+            throw new IllegalArgumentException("주문 수량은 1 이상이어야 합니다.");
+        }
+
+        OrderItem orderItem = new OrderItem();
+        orderItem.item = item;
+        orderItem.count = count;
+        orderItem.orderPrice = item.getPrice() * count; // 주문 시점 가격 고정
+        return orderItem;
+    }
+
     public void cancelOrderItem() {
         this.getItem().addStock(count); // 해당 상품 재고 복구
     }
@@ -0,0 +1,46 @@
+package com.jpa.market.event;
+
+import com.jpa.market.entity.Item;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//상품이 등록/수정되었을 때 발행하는 이벤트
+//검색 인덱스 같은 메모리 구조들이 이 이벤트를 받아서 자기 데이터를 갱신함
+//트랜잭션 커밋 이후에만 처리되도록 @TransactionalEventListener로 받을 것
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemChangedEvent {
+
+    public enum Type {
+        CREATED,    //상품 등록
+        UPDATED,    //상품 정보 수정
+        STOCK       //주문/취소로 재고만 변경 (상품명, 상세설명은 null)
+    }
+
+    private final Long itemId;
+
+    private final String itemName;
+
+    private final String itemDetail;
+
+    private final Type type;
+
+    //재고 변경으로 판매상태(SELL <-> SOLD_OUT)까지 바뀌었는지 여부
+    private final boolean sellStatusChanged;
+
+    //재고 변화량 (주문이면 음수, 취소면 양수). 등록/수정 이벤트는 0
+    private final int stockDelta;
+
+    public static ItemChangedEvent created(Item item) {
+        return new ItemChangedEvent(item.getId(), item.getItemName(), item.getItemDetail(), Type.CREATED, false, 0);
+    }
+
+    public static ItemChangedEvent updated(Item item) {
+        return new ItemChangedEvent(item.getId(), item.getItemName(), item.getItemDetail(), Type.UPDATED, false, 0);
+    }
+
+    public static ItemChangedEvent stockChanged(Long itemId, int stockDelta, boolean sellStatusChanged) {
+        return new ItemChangedEvent(itemId, null, null, Type.STOCK, sellStatusChanged, stockDelta);
+    }
+}
@@ -5,6 +5,8 @@ import com.jpa.market.entity.Item;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 
 // 중요: uses에 ItemImgMapper를 넣어줘야 리스트 변환을 알아서 맡깁니다.
 //이게 없으면 MapStruct는 리스트 안에 있는 객체들을 어떻게 변환해야 할지 몰라서 에러를 냅니다.
@@ -17,6 +19,9 @@ public interface ItemMapper {
     @Mapping(source = "itemImgs", target = "itemImgDtoList")
     ItemFormDto entityToDto(Item item);
 
+    // 여러 상품을 한 번에 변환 (각 상품은 위의 entityToDto로 변환됨)
+    List<ItemFormDto> entitiesToDtos(List<Item> items);
+
     // 2. ItemCreateDto -> Item 엔티티  (저장할 때 사용)
     @Mapping(target = "id", ignore = true)
     @Mapping(source = "itemImgDtoList", target = "itemImgs")
@@ -1,6 +1,7 @@
 package com.jpa.market.mapper;
 
 import com.jpa.market.dto.OrderItemDto;
+import com.jpa.market.dto.OrderItemQueryDto;
 import com.jpa.market.entity.OrderItem;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -15,6 +16,10 @@ public interface OrderItemMapper {
     @Mapping(source = "imgUrl", target = "imgUrl")
     OrderItemDto entityToDto(OrderItem orderItem, String imgUrl);
 
+    // 주문 내역 조회용 DTO -> OrderItemDto (이미지가 없으면 공백)
+    @Mapping(source = "imgUrl", target = "imgUrl", defaultValue = "")
+    OrderItemDto queryDtoToDto(OrderItemQueryDto orderItemQueryDto);
+
     // 2. OrderItemDto -> OrderItem 엔티티
     //**"주문 상품은 단순한 값 복사가 아니라,
     // 서버의 비즈니스 로직(재고 차감, 가격 계산 등)을 거쳐서 탄생해야 하는 존재이기 때문"에
@@ -1,6 +1,7 @@
 package com.jpa.market.mapper;
 
 import com.jpa.market.dto.OrderHistDto;
+import com.jpa.market.entity.ArchivedOrder;
 import com.jpa.market.entity.Order;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -14,6 +15,12 @@ public interface OrderMapper {
     @Mapping(target = "orderItemDtoList", ignore = true)    //연관관계 제외
     OrderHistDto entityToDto(Order order);
 
+    //보관된 주문도 같은 화면(주문 내역)에 보여주므로 같은 DTO로 변환
+    @Mapping(source = "id", target = "orderId")
+    @Mapping(source = "orderDate", target = "orderDate", dateFormat = "yyyy-MM-dd HH:mm")
+    @Mapping(target = "orderItemDtoList", ignore = true)
+    OrderHistDto archivedEntityToDto(ArchivedOrder archivedOrder);
+
 
     //Order는 단순한 복사로 만들 수 없는 객체입니다
     //사용자님이 작성하신 createOrder 정적 메서드를 보세요.
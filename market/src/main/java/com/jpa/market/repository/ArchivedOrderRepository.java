@@ -0,0 +1,28 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.dto.OrderItemQueryDto;
+import com.jpa.market.entity.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, ArchivedOrderRepositoryCustom {
+
+    //회원의 보관된 주문 수 (member_id, order_date 인덱스만 읽음)
+    @Query("select count(a) from ArchivedOrder a, Member m " +
+            "where m.id = a.memberId and m.loginId = :loginId")
+    long countByLoginId(@Param("loginId") String loginId);
+
+    //보관된 주문들의 주문상품을 상품명, 대표 이미지와 함께 한 번에 조회
+    //상품이 삭제된 경우에도 주문상품은 보여줌 (left join)
+    @Query("select new com.jpa.market.dto.OrderItemQueryDto(" +
+            "ai.orderId, i.itemName, ai.count, ai.orderPrice, i.repImgUrl) " +
+            "from ArchivedOrderItem ai " +
+            "left join Item i on i.id = ai.itemId " +
+            "where ai.orderId in :orderIds " +
+            "order by ai.id asc")
+    List<OrderItemQueryDto> findOrderItemDtoList(@Param("orderIds") Collection<Long> orderIds);
+}
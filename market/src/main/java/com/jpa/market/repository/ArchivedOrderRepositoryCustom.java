@@ -0,0 +1,12 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.entity.ArchivedOrder;
+
+import java.util.List;
+
+public interface ArchivedOrderRepositoryCustom {
+
+    //회원의 보관된 주문을 최신순으로 offset부터 limit개 조회
+    //최근 주문(orders)에 이어서 보여주므로 offset이 페이지 크기의 배수가 아닐 수 있음
+    List<ArchivedOrder> findArchivedOrders(String loginId, long offset, int limit);
+}
@@ -0,0 +1,34 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.entity.ArchivedOrder;
+import com.jpa.market.entity.QArchivedOrder;
+import com.jpa.market.entity.QMember;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+public class ArchivedOrderRepositoryCustomImpl implements ArchivedOrderRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    public ArchivedOrderRepositoryCustomImpl(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Override
+    public List<ArchivedOrder> findArchivedOrders(String loginId, long offset, int limit) {
+        QArchivedOrder archivedOrder = QArchivedOrder.archivedOrder;
+        QMember member = QMember.member;
+
+        return queryFactory
+                .select(archivedOrder)
+                .from(archivedOrder)
+                .join(member).on(member.id.eq(archivedOrder.memberId))
+                .where(member.loginId.eq(loginId))
+                .orderBy(archivedOrder.orderDate.desc())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+}
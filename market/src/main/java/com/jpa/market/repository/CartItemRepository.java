@@ -1,31 +1,59 @@
 package com.jpa.market.repository;
 
 import com.jpa.market.dto.CartDetailDto;
+import com.jpa.market.dto.CartOrderLineDto;
 import com.jpa.market.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     // 1. 장바구니에 이미 담긴 상품인지 확인
-    // 서비스에서 '장바구니 담기' 시 중복 체크를 위해 사용합니다.
     CartItem findByCartIdAndItemId(Long cartId, Long itemId);
 
-    //일단 이렇게 먼저 쓰고 고칠꺼임!!!
+    //대표 이미지 경로는 Item에 같이 저장되어 있으므로 item_img는 조인하지 않음
+    //현재 재고/판매상태/담을 때 가격도 같이 조회해서 주문 전에 화면에서 품절/가격 변경을 알 수 있도록 함
     @Query("select new com.jpa.market.dto.CartDetailDto(" +
-            "ci.id, i.itemName, i.price, ci.count, im.imgUrl) " +
+            "ci.id, i.itemName, i.price, ci.count, i.repImgUrl, i.stockNumber, i.itemSellStatus, ci.addedPrice) " +
             "from CartItem ci " +
             "join ci.item i " +
-            "join i.itemImgs im " + // Item 엔티티의 이미지 리스트와 조인
             "where ci.cart.id = :cartId " +
-            "and im.repImgYn = 'Y' " +   // 대표 이미지만!
             "order by ci.regTime desc")
     //JPQL에서 :이름 파라미터를 썼으면 메서드 파라미터에 @Param("이름") 반드시 필요
     //👉@Param("cartId"):  "JPQL의 :cartId ← 이 파라미터랑 연결해라"
     List<CartDetailDto> findCartDetailDtoList(@Param("cartId") Long cartId);
-}
 
+    //장바구니 주문용 : 선택한 장바구니 상품 중 로그인한 회원의 것만 상품 id, 수량과 함께 한 번에 조회
+    //장바구니 상품마다 조회하고 cart -> member를 지연 로딩해서 권한을 확인하지 않도록 조건에 회원을 같이 넣음
+    @Query("select new com.jpa.market.dto.CartOrderLineDto(ci.id, ci.item.id, ci.count) " +
+            "from CartItem ci " +
+            "join ci.cart c " +
+            "join c.member m " +
+            "where ci.id in :cartItemIds and m.loginId = :loginId")
+    List<CartOrderLineDto> findCartOrderLines(@Param("cartItemIds") Collection<Long> cartItemIds,
+                                              @Param("loginId") String loginId);
 
+    //장바구니에 담긴 상품 id와 수량만 담은 순서대로 조회 (메모리 장바구니를 채울 때 사용)
+    @Query("select new com.jpa.market.dto.CartOrderLineDto(ci.id, ci.item.id, ci.count, ci.addedPrice) " +
+            "from CartItem ci " +
+            "where ci.cart.id = :cartId " +
+            "order by ci.regTime asc, ci.id asc")
+    List<CartOrderLineDto> findCartLines(@Param("cartId") Long cartId);
+
+    //주문한 장바구니 상품 삭제 : 로그인한 회원의 것만 지우고 지운 개수를 돌려줌
+    //같은 장바구니 상품으로 동시에(더블클릭, 재시도) 주문하면 늦게 지우는 쪽은 개수가 모자라므로 주문을 롤백할 수 있음
+    @Modifying
+    @Query("delete from CartItem ci " +
+            "where ci.id in :cartItemIds " +
+            "and ci.cart.id in (select c.id from Cart c join c.member m where m.loginId = :loginId)")
+    int deleteOwnedCartItems(@Param("cartItemIds") Collection<Long> cartItemIds,
+                             @Param("loginId") String loginId);
+
+    //존재하는 장바구니 상품 수 (주문 검증 실패 시 없는 상품인지 남의 상품인지 구분할 때만 사용)
+    long countByIdIn(Collection<Long> cartItemIds);
+}
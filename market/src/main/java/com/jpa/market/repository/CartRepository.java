@@ -2,9 +2,34 @@ package com.jpa.market.repository;
 
 import com.jpa.market.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     // Member 엔티티의 'id' 필드(Long)를 참조해서 찾습니다.
     Cart findByMemberId(Long memberId);
+
+    //회원의 장바구니 id만 조회
+    @Query("select c.id from Cart c where c.member.id = :memberId")
+    Optional<Long> findIdByMemberId(@Param("memberId") Long memberId);
+
+    //회원의 장바구니가 없을 때만 생성
+    //동시에 처음 담기를 해도 member_id 유니크 제약 때문에 장바구니는 하나만 생김 (이미 있으면 아무것도 바꾸지 않음)
+    //새로 만들었든 이미 있었든 last_insert_id(...)에 장바구니 id를 남겨두므로 바로 lastInsertId()로 꺼낼 것
+    //  -> 다른 트랜잭션이 먼저 만든 장바구니는 REPEATABLE READ 스냅샷에 보이지 않으므로 다시 조회하면 찾을 수 없음
+    @Modifying
+    @Query(value = "insert into cart (cart_id, member_id, reg_time, update_time, created_by, modified_by) " +
+            "values (last_insert_id(:cartId), :memberId, :now, :now, :loginId, :loginId) " +
+            "on duplicate key update cart_id = last_insert_id(cart_id)", nativeQuery = true)
+    int insertIfAbsent(@Param("cartId") Long cartId, @Param("memberId") Long memberId,
+                       @Param("now") LocalDateTime now, @Param("loginId") String loginId);
+
+    //같은 커넥션에서 마지막으로 last_insert_id(...)에 남긴 값 (insertIfAbsent 직후에 호출)
+    @Query(value = "select last_insert_id()", nativeQuery = true)
+    Long lastInsertId();
 }
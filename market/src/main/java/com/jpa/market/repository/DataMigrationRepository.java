@@ -0,0 +1,19 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.entity.DataMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+//한 번만 실행하는 데이터 작업의 완료 기록 (existsById로 완료 여부 확인)
+public interface DataMigrationRepository extends JpaRepository<DataMigration, String> {
+
+    //완료 기록 남기기. 여러 서버가 동시에 같은 작업을 끝내도 오류가 나지 않도록 이미 있으면 무시
+    @Modifying
+    @Query(value = "insert ignore into data_migration (migration_name, applied_at) values (:name, :now)",
+            nativeQuery = true)
+    int markApplied(@Param("name") String name, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,72 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.event.ItemChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//상품 목록 페이지의 전체 개수(count 쿼리 결과)를 검색 조건별로 잠깐 저장해두는 캐시
+//count 쿼리는 목록 쿼리만큼 비싸기 때문에 같은 조건이면 다시 세지 않음
+//  - TTL이 지나면 다시 조회
+//  - 상품이 등록/수정되거나 판매상태가 바뀌면(커밋 후) 전부 버림
+@Component
+public class ItemCountCache {
+
+    //조건 조합이 너무 많이 쌓이지 않도록 최대 개수 제한
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<String, CountEntry> cache = new ConcurrentHashMap<>();
+
+    //무효화될 때마다 1씩 증가
+    //count를 세는 도중에 상품이 바뀌었으면 그 결과는 저장하지 않기 위해 사용
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long ttlMillis;
+
+    public ItemCountCache(@Value("${catalog.count-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    //캐시에 있으면 바로 반환, 없으면 loader(count 쿼리)를 실행해서 저장
+    public long getOrLoad(String key, LongSupplier loader) {
+        long now = System.currentTimeMillis();
+
+        CountEntry entry = cache.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.count;
+        }
+
+        long startGeneration = generation.get();
+        long count = loader.getAsLong();
+
+        if (startGeneration == generation.get()) {
+            if (cache.size() >= MAX_ENTRIES) {
+                cache.clear();
+            }
+            cache.put(key, new CountEntry(count, now + ttlMillis));
+        }
+        return count;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        //주문으로 재고만 바뀐 경우에는 판매상태가 바뀌었을 때만 개수가 달라짐
+        if (event.getType() == ItemChangedEvent.Type.STOCK && !event.isSellStatusChanged()) {
+            return;
+        }
+        invalidateAll();
+    }
+
+    private record CountEntry(long count, long expiresAt) {
+    }
+}
@@ -1,12 +1,17 @@
 package com.jpa.market.repository;
 
+import com.jpa.market.constant.ItemSellStatus;
 import com.jpa.market.entity.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item>, ItemRepositoryCustom {
 
@@ -33,19 +38,66 @@ public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredi
     @Query(value="select * from item i where i.item_detail like " +
             "%:itemDetail% order by i.price desc", nativeQuery = true)
     List<Item> findByItemDetailByNative(@Param("itemDetail") String itemDetail);
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    //여러 상품을 이미지까지 한 번에 조회 (상품 수와 상관없이 쿼리 1번)
+    //fetch join으로 이미지를 같이 가져오므로 itemImgs 지연 로딩이 발생하지 않음
+    //상품 하나에 이미지가 여러 개라 행이 중복되므로 distinct 사용
+    @Query("select distinct i from Item i left join fetch i.itemImgs where i.id in :ids")
+    List<Item> findAllWithImgsByIdIn(@Param("ids") Collection<Long> ids);
+
+    //상품의 마지막 수정 시각만 조회 (ETag 비교용, 이미지/상세설명은 읽지 않음)
+    @Query("select coalesce(i.updateTime, i.regTime) from Item i where i.id = :itemId")
+    Optional<LocalDateTime> findLastModifiedById(@Param("itemId") Long itemId);
+
+    //재고 차감 (조회 후 수정하지 않고 update 한 문장으로 처리 -> 동시 주문에도 재고가 음수가 되지 않음)
+    //차감 후에도 재고가 남는 경우만 차감하므로 판매상태는 바뀌지 않음
+    //재고가 주문수량 이하이면 where 조건에 걸려서 0을 반환 -> decreaseLastStock으로 다시 시도
+    @Modifying
+    @Query("update Item i set " +
+            "i.stockNumber = i.stockNumber - :count, " +
+            "i.updateTime = :now " +
+            "where i.id = :itemId and i.stockNumber > :count")
+    int decreaseStock(@Param("itemId") Long itemId, @Param("count") int count, @Param("now") LocalDateTime now);
+
+    //남은 재고를 모두 차감하고 품절로 변경 (재고가 주문수량과 같은 경우만)
+    //어느 update가 반영되었는지로 품절 여부를 알 수 있으므로 차감 후 재고를 다시 조회하지 않아도 됨
+    @Modifying
+    @Query("update Item i set " +
+            "i.itemSellStatus = :soldOut, " +
+            "i.stockNumber = 0, " +
+            "i.updateTime = :now " +
+            "where i.id = :itemId and i.stockNumber = :count")
+    int decreaseLastStock(@Param("itemId") Long itemId, @Param("count") int count,
+                          @Param("soldOut") ItemSellStatus soldOut, @Param("now") LocalDateTime now);
+
+    //재고 복구 (주문 취소). 재고가 남아있는 상품만 (판매상태는 그대로)
+    //재고가 없던 상품이면 0을 반환 -> increaseSoldOutStock으로 다시 시도
+    @Modifying
+    @Query("update Item i set " +
+            "i.stockNumber = i.stockNumber + :count, " +
+            "i.updateTime = :now " +
+            "where i.id = :itemId and i.stockNumber > 0")
+    int increaseStock(@Param("itemId") Long itemId, @Param("count") int count, @Param("now") LocalDateTime now);
+
+    //재고가 없던 상품의 재고 복구. 재고가 생기면 다시 판매중으로 변경
+    @Modifying
+    @Query("update Item i set " +
+            "i.itemSellStatus = case when i.stockNumber + :count > 0 then :sell else i.itemSellStatus end, " +
+            "i.stockNumber = i.stockNumber + :count, " +
+            "i.updateTime = :now " +
+            "where i.id = :itemId and i.stockNumber <= 0")
+    int increaseSoldOutStock(@Param("itemId") Long itemId, @Param("count") int count,
+                             @Param("sell") ItemSellStatus sell, @Param("now") LocalDateTime now);
+
+    //현재 재고 수량만 조회
+    @Query("select i.stockNumber from Item i where i.id = :itemId")
+    Optional<Integer> findStockNumberById(@Param("itemId") Long itemId);
+
+    //현재 가격만 조회
+    @Query("select i.price from Item i where i.id = :itemId")
+    Optional<Integer> findPriceById(@Param("itemId") Long itemId);
+
+    //주어진 id 중 실제로 있는 상품 id만 조회
+    @Query("select i.id from Item i where i.id in :itemIds")
+    List<Long> findExistingIds(@Param("itemIds") Collection<Long> itemIds);
+}
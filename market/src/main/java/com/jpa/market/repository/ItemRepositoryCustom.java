@@ -1,11 +1,18 @@
 package com.jpa.market.repository;
 
 import com.jpa.market.dto.ItemAdminListDto;
+import com.jpa.market.dto.ItemFacetDto;
 import com.jpa.market.dto.ItemSearchDto;
 import com.jpa.market.dto.MainItemDto;
 import com.jpa.market.entity.Item;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 
 public interface ItemRepositoryCustom {
 
@@ -21,4 +28,33 @@ public interface ItemRepositoryCustom {
 
     Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable);
 
+    //approximateCount가 true면 count 쿼리를 실행하지 않음
+    //다음 페이지 여부(hasNext)만 정확하고 전체 개수/전체 페이지 수는 근사값
+    Page<ItemAdminListDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable, boolean approximateCount);
+
+    //메인 목록 캐시(MainItemPageCache)에 없을 때만 호출되고, 호출하는 서비스는 트랜잭션을 시작하지 않으므로
+    //목록 조회와 count 쿼리가 한 커넥션/한 트랜잭션에서 실행되도록 여기서 읽기 전용 트랜잭션을 시작함
+    @Transactional(readOnly = true)
+    Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable, boolean approximateCount);
+
+    //무한 스크롤용 커서(keyset) 조회
+    //afterId : 이전 페이지의 마지막 상품 id (첫 페이지는 null)
+    //Slice : 전체 개수 없이 현재 데이터 + 다음 페이지 여부만 담음 (count 쿼리 필요 없음)
+    Slice<ItemAdminListDto> getAdminItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size);
+
+    Slice<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size);
+
+    //검색 화면 사이드바에 표시할 판매상태/등록일/가격대별 상품 개수 (한 번의 집계 쿼리)
+    ItemFacetDto getAdminItemFacets(ItemSearchDto itemSearchDto);
+
+    ItemFacetDto getMainItemFacets(ItemSearchDto itemSearchDto);
+
+    //여러 상품의 재고를 update 한 문장으로 차감 (상품 id -> 차감 수량)
+    //재고가 차감 수량보다 적은 상품은 변경되지 않으므로, 반환값(변경된 행 수)이 상품 수보다 적으면 재고 부족
+    long decreaseStocks(Map<Long, Integer> countByItemId, LocalDateTime now);
+
+    //여러 상품의 현재 재고 수량 (상품 id -> 재고)
+    //행 락을 상품 id 오름차순으로 잡으므로 트랜잭션이 끝날 때까지 다른 트랜잭션은 이 상품들의 재고를 바꿀 수 없음
+    Map<Long, Integer> lockStockNumbers(Collection<Long> itemIds);
+
 }
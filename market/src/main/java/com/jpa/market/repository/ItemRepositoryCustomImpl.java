@@ -1,22 +1,30 @@
 package com.jpa.market.repository;
 
 import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.constant.PriceBand;
 import com.jpa.market.dto.*;
 import com.jpa.market.entity.Item;
 import com.jpa.market.entity.QItem;
-import com.jpa.market.entity.QItemImg;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 //ItemRepositoryCustom를 구현하는 인터페이스 작성
 //클래스명 뒤에 반드시 Impl를 붙여야 정상적으로 동작함
@@ -25,10 +33,21 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
     //동적으로 쿼리를 생성하기 위해서 JPAQueryFactory 클래스를 사용함
     private JPAQueryFactory queryFactory;
 
+    //검색어 -> 상품 id 후보를 찾아주는 메모리 색인
+    private final ItemSearchIndex itemSearchIndex;
+
+    //검색 조건별 전체 개수 캐시
+    private final ItemCountCache itemCountCache;
+
+    //등록일 조건별 개수를 셀 때 사용하는 조건 목록 (searchDateType 값과 같음)
+    private static final List<String> FACET_DATE_TYPES = List.of("all", "1d", "1w", "1m", "6m");
+
 
     //JPAQueryFactory의 생성자로 EntityManager를 초기화함
-    public ItemRepositoryCustomImpl(EntityManager em) {
+    public ItemRepositoryCustomImpl(EntityManager em, ItemSearchIndex itemSearchIndex, ItemCountCache itemCountCache) {
         this.queryFactory = new JPAQueryFactory(em);
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemCountCache = itemCountCache;
     }
 
     //반환타입 BooleanExpression
@@ -47,8 +66,9 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
 
     //searchDateType값에 따라서 현재 날짜와 시간을 이전값으로 설정
     //해당 시간 이후로 등록된 상품만 조회하도록 함
+    //현재 시간은 1분 단위로 잘라서 사용 (같은 1분 안의 요청은 같은 결과 -> 캐시 가능)
     private BooleanExpression regDtsAfter(String searchDateType) {
-        LocalDateTime dateTime = LocalDateTime.now();
+        LocalDateTime dateTime = ItemSearchDto.searchBaseTime();
 
         if(Objects.equals("all", searchDateType) || searchDateType == null) {
             return null;
@@ -66,6 +86,35 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
         return QItem.item.regTime.after(dateTime);
     }
 
+    //가격대 조건 (min 이상 max 미만)
+    private BooleanExpression priceBandIn(PriceBand priceBand) {
+        if (priceBand == null) {
+            return null;
+        }
+        BooleanExpression minCondition = QItem.item.price.goe(priceBand.getMin());
+        return priceBand.getMax() == null ? minCondition : minCondition.and(QItem.item.price.lt(priceBand.getMax()));
+    }
+
+    //메인 화면 사이드바 필터 (등록일, 판매상태, 가격대)
+    //선택하지 않은 조건은 null이므로 무시됨
+    private BooleanExpression mainFilter(ItemSearchDto itemSearchDto) {
+        return allOf(
+                regDtsAfter(itemSearchDto.getSearchDateType()),
+                searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
+                priceBandIn(itemSearchDto.getSearchPriceBand()));
+    }
+
+    //null인 조건은 빼고 and로 연결. 모두 null이면 null
+    private BooleanExpression allOf(BooleanExpression... conditions) {
+        BooleanExpression result = null;
+        for (BooleanExpression condition : conditions) {
+            if (condition != null) {
+                result = (result == null) ? condition : result.and(condition);
+            }
+        }
+        return result;
+    }
+
     //검색어가 포함되어 있는 상품 또는 상품을 등록한 사람의 아이디를 조회하여
     //결과값 반환
     private BooleanExpression searchByLike(String searchBy, String searchQuery) {
@@ -74,7 +123,9 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
         }
 
         if(Objects.equals("itemName", searchBy)) {
-            return QItem.item.itemName.contains(searchQuery);
+            return indexedContains(ItemSearchIndex.Field.ITEM_NAME, QItem.item.itemName, searchQuery);
+        } else if (Objects.equals("itemDetail", searchBy)) {
+            return indexedContains(ItemSearchIndex.Field.ITEM_DETAIL, QItem.item.itemDetail, searchQuery);
         } else if (Objects.equals("createdBy", searchBy)) {
             return QItem.item.createdBy.contains(searchQuery);
         }
@@ -85,6 +136,12 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
 
     @Override
     public Page<ItemAdminListDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
+        return getAdminItemPage(itemSearchDto, pageable, false);
+    }
+
+    @Override
+    public Page<ItemAdminListDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable,
+                                                   boolean approximateCount) {
         // 1. 실제 데이터 조회
         List<ItemAdminListDto> content = queryFactory
                 .select(new QItemAdminListDto( // Q-Type 생성자를 사용하여 바로 DTO로 조회
@@ -98,13 +155,18 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
                 .where(
                         regDtsAfter(itemSearchDto.getSearchDateType()),
                         searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
+                        priceBandIn(itemSearchDto.getSearchPriceBand()),
                         searchByLike(itemSearchDto.getSearchBy(), itemSearchDto.getSearchQuery())
                 )
                 .orderBy(QItem.item.id.desc())
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(contentLimit(pageable, approximateCount))
                 .fetch();
 
+        if (approximateCount) {
+            return approximatePage(content, pageable);
+        }
+
         // 2. 카운트 쿼리 (별도로 분리)
         JPAQuery<Long> countQuery = queryFactory
                 .select(QItem.item.count()) // count(item.id)와 동일
@@ -112,54 +174,291 @@ public class ItemRepositoryCustomImpl implements ItemRepositoryCustom{
                 .where(
                         regDtsAfter(itemSearchDto.getSearchDateType()),
                         searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
+                        priceBandIn(itemSearchDto.getSearchPriceBand()),
                         searchByLike(itemSearchDto.getSearchBy(), itemSearchDto.getSearchQuery())
                 );
         // 3. PageableExecutionUtils를 사용하여 Page 객체 생성 (성능 최적화)
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+        // count가 꼭 필요할 때만 캐시를 확인하고, 캐시에도 없으면 그때 count 쿼리 실행
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> itemCountCache.getOrLoad("admin:" + itemSearchDto.toFilterKey(), countQuery::fetchOne));
     }
 
+    @Override
     public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
+        return getMainItemPage(itemSearchDto, pageable, false);
+    }
+
+    @Override
+    public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable,
+                                             boolean approximateCount) {
         QItem item = QItem.item;
-        QItemImg itemImg = QItemImg.itemImg;
 
+        // 대표 이미지 경로는 상품 테이블에 같이 저장되어 있으므로 item_img 조인 없이 조회
         List<MainItemDto> content = queryFactory
                 .select(
                         new QMainItemDto(
                                 item.id,
                                 item.itemName,
                                 item.itemDetail,
-                                itemImg.imgUrl,
+                                item.repImgUrl,
                                 item.price)
                 )
-                .from(itemImg)  // 조건이 더 많은 쪽을  from에 작성
-                .join(itemImg.item, item) // ItemImg와 Item 조인
-                .where(itemImg.repImgYn.eq("Y")) // 대표 이미지만 불러옴
+                .from(item)
                 .where(itemNameLike(itemSearchDto.getSearchQuery())) // 검색어 필터
+                .where(mainFilter(itemSearchDto)) // 사이드바 필터 (등록일, 판매상태, 가격대)
                 .orderBy(item.id.desc())
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(contentLimit(pageable, approximateCount))
                 .fetch();
 
+        if (approximateCount) {
+            return approximatePage(content, pageable);
+        }
+
         // 2. 전체 개수 조회 (count 쿼리)
-        long total = queryFactory
+        // 관리자 목록과 같이 PageableExecutionUtils로 필요할 때만 실행하고, 결과는 캐시함
+        JPAQuery<Long> countQuery = queryFactory
                 .select(item.count())
-                .from(itemImg)
-                .join(itemImg.item, item)
-                .where(itemImg.repImgYn.eq("Y"))
+                .from(item)
                 .where(itemNameLike(itemSearchDto.getSearchQuery()))
+                .where(mainFilter(itemSearchDto));
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> itemCountCache.getOrLoad("main:" + itemSearchDto.toFilterKey(), countQuery::fetchOne));
+    }
+
+    @Override
+    public ItemFacetDto getAdminItemFacets(ItemSearchDto itemSearchDto) {
+        return getItemFacets(itemSearchDto,
+                searchByLike(itemSearchDto.getSearchBy(), itemSearchDto.getSearchQuery()));
+    }
+
+    @Override
+    public ItemFacetDto getMainItemFacets(ItemSearchDto itemSearchDto) {
+        return getItemFacets(itemSearchDto, itemNameLike(itemSearchDto.getSearchQuery()));
+    }
+
+    //판매상태/등록일/가격대별 개수를 한 번의 쿼리로 집계
+    //항목마다 count 쿼리를 따로 날리지 않고 sum(case when 조건 then 1 else 0 end)를 나란히 조회함
+    //  -> 검색어 조건으로 줄어든 행을 한 번만 읽으면서 모든 개수를 같이 계산
+    //각 항목은 자기 자신의 조건만 빼고 나머지 선택된 조건을 적용해서 셈
+    private ItemFacetDto getItemFacets(ItemSearchDto itemSearchDto, BooleanExpression textCondition) {
+        QItem item = QItem.item;
+
+        BooleanExpression dateCondition = regDtsAfter(itemSearchDto.getSearchDateType());
+        BooleanExpression sellStatusCondition = searchSellStatusEq(itemSearchDto.getSearchSellStatus());
+        BooleanExpression priceBandCondition = priceBandIn(itemSearchDto.getSearchPriceBand());
+
+        List<Expression<Long>> columns = new ArrayList<>();
+
+        // 1. 판매상태별 : 등록일 + 가격대 조건 적용
+        for (ItemSellStatus status : ItemSellStatus.values()) {
+            columns.add(countIf(allOf(dateCondition, priceBandCondition, item.itemSellStatus.eq(status))));
+        }
+        // 2. 등록일별 : 판매상태 + 가격대 조건 적용
+        for (String dateType : FACET_DATE_TYPES) {
+            columns.add(countIf(allOf(sellStatusCondition, priceBandCondition, regDtsAfter(dateType))));
+        }
+        // 3. 가격대별 : 등록일 + 판매상태 조건 적용
+        for (PriceBand priceBand : PriceBand.values()) {
+            columns.add(countIf(allOf(dateCondition, sellStatusCondition, priceBandIn(priceBand))));
+        }
+
+        Tuple row = queryFactory
+                .select(columns.toArray(new Expression[0]))
+                .from(item)
+                .where(textCondition) // 검색어는 모든 항목에 공통이므로 where에서 한 번만 거름
                 .fetchOne();
 
-        // 카운트 쿼리는 생략 (기존 방식과 동일)
+        ItemFacetDto facets = new ItemFacetDto();
+        int index = 0;
+        for (ItemSellStatus status : ItemSellStatus.values()) {
+            facets.getSellStatus().put(status, countAt(row, index++));
+        }
+        for (String dateType : FACET_DATE_TYPES) {
+            facets.getDateType().put(dateType, countAt(row, index++));
+        }
+        for (PriceBand priceBand : PriceBand.values()) {
+            facets.getPriceBand().put(priceBand, countAt(row, index++));
+        }
+        return facets;
+    }
+
+    //조건에 맞는 행의 개수 (조건이 없으면 전체 행 개수)
+    private Expression<Long> countIf(BooleanExpression condition) {
+        if (condition == null) {
+            return QItem.item.count();
+        }
+        return new CaseBuilder().when(condition).then(1L).otherwise(0L).sum();
+    }
+
+    //행이 하나도 없으면 sum 결과가 null이므로 0으로 처리
+    private long countAt(Tuple row, int index) {
+        Long count = (row == null) ? null : row.get(index, Long.class);
+        return count == null ? 0L : count;
+    }
+
+    //근사 개수 모드에서는 다음 페이지가 있는지 알기 위해 하나 더 조회
+    private long contentLimit(Pageable pageable, boolean approximateCount) {
+        return approximateCount ? pageable.getPageSize() + 1 : pageable.getPageSize();
+    }
+
+    //count 쿼리 없이 만드는 Page
+    //전체 개수는 "지금까지 본 개수 (+ 다음 페이지가 있으면 1)"로 채움
+    //  -> hasNext()는 정확하지만 totalElements/totalPages는 근사값
+    private <T> Page<T> approximatePage(List<T> content, Pageable pageable) {
+        boolean hasMore = content.size() > pageable.getPageSize();
+        if (hasMore) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        long total = pageable.getOffset() + content.size() + (hasMore ? 1 : 0);
         return new PageImpl<>(content, pageable, total);
     }
 
+    //무한 스크롤용 커서 조회
+    //offset으로 앞의 데이터를 건너뛰지 않고 "마지막으로 본 id보다 작은 것"부터 바로 찾음(PK 범위 검색)
+    //그래서 500번째 페이지도 첫 페이지와 같은 비용이 듦
+    @Override
+    public Slice<ItemAdminListDto> getAdminItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size) {
+        // 다음 페이지가 있는지 확인하기 위해 하나 더 조회
+        List<ItemAdminListDto> content = queryFactory
+                .select(new QItemAdminListDto(
+                        QItem.item.id,
+                        QItem.item.itemName,
+                        QItem.item.itemSellStatus,
+                        QItem.item.createdBy,
+                        QItem.item.regTime
+                ))
+                .from(QItem.item)
+                .where(
+                        idLessThan(afterId),
+                        regDtsAfter(itemSearchDto.getSearchDateType()),
+                        searchSellStatusEq(itemSearchDto.getSearchSellStatus()),
+                        priceBandIn(itemSearchDto.getSearchPriceBand()),
+                        searchByLike(itemSearchDto.getSearchBy(), itemSearchDto.getSearchQuery())
+                )
+                .orderBy(QItem.item.id.desc())
+                .limit(size + 1)
+                .fetch();
+
+        return toSlice(content, size);
+    }
+
+    @Override
+    public Slice<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size) {
+        QItem item = QItem.item;
+
+        List<MainItemDto> content = queryFactory
+                .select(
+                        new QMainItemDto(
+                                item.id,
+                                item.itemName,
+                                item.itemDetail,
+                                item.repImgUrl,
+                                item.price)
+                )
+                .from(item)
+                .where(idLessThan(afterId))
+                .where(itemNameLike(itemSearchDto.getSearchQuery()))
+                .where(mainFilter(itemSearchDto))
+                .orderBy(item.id.desc())
+                .limit(size + 1)
+                .fetch();
+
+        return toSlice(content, size);
+    }
+
+    //커서가 없으면(첫 페이지) 조건 없음
+    private BooleanExpression idLessThan(Long afterId) {
+        return afterId == null ? null : QItem.item.id.lt(afterId);
+    }
+
+    //size + 1개를 조회했으므로 하나가 더 있으면 다음 페이지가 있는 것
+    private <T> Slice<T> toSlice(List<T> content, int size) {
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    //update item set
+    //    item_sell_status = case when stock_number = (차감 수량) then 'SOLD_OUT' else item_sell_status end,
+    //    stock_number = stock_number - (case item_id when ? then ? ... end), ...
+    //where item_id in (...) and stock_number >= (차감 수량)
+    //판매상태는 차감 전 재고로 계산해야 하므로 stockNumber보다 먼저 set
+    //in 조건은 PK 범위로 읽으므로 행 락도 상품 id 오름차순으로 잡힘
+    @Override
+    public long decreaseStocks(Map<Long, Integer> countByItemId, LocalDateTime now) {
+        QItem item = QItem.item;
+
+        CaseBuilder.Cases<Integer, NumberExpression<Integer>> cases = null;
+        for (Map.Entry<Long, Integer> entry : countByItemId.entrySet()) {
+            cases = (cases == null)
+                    ? new CaseBuilder().when(item.id.eq(entry.getKey())).then(entry.getValue())
+                    : cases.when(item.id.eq(entry.getKey())).then(entry.getValue());
+        }
+        if (cases == null) {
+            return 0L;
+        }
+        NumberExpression<Integer> count = cases.otherwise(0);
+
+        return queryFactory
+                .update(item)
+                .set(item.itemSellStatus, new CaseBuilder()
+                        .when(item.stockNumber.eq(count)).then(ItemSellStatus.SOLD_OUT)
+                        .otherwise(item.itemSellStatus))
+                .set(item.stockNumber, item.stockNumber.subtract(count))
+                .set(item.updateTime, now)
+                .where(item.id.in(countByItemId.keySet()), item.stockNumber.goe(count))
+                .execute();
+    }
+
+    //select item_id, stock_number from item where item_id in (...) order by item_id for update
+    //잠금 조회는 트랜잭션 시작 시점의 스냅샷이 아니라 커밋된 최신 값을 읽음
+    @Override
+    public Map<Long, Integer> lockStockNumbers(Collection<Long> itemIds) {
+        QItem item = QItem.item;
+        Map<Long, Integer> stockNumbers = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return stockNumbers;
+        }
+
+        List<Tuple> rows = queryFactory
+                .select(item.id, item.stockNumber)
+                .from(item)
+                .where(item.id.in(itemIds))
+                .orderBy(item.id.asc())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .fetch();
+        for (Tuple row : rows) {
+            stockNumbers.put(row.get(item.id), row.get(item.stockNumber));
+        }
+        return stockNumbers;
+    }
+
     // 검색어 조건 메서드 추가
     private BooleanExpression itemNameLike(String searchQuery) {
         // StringUtils.isEmpty(searchQuery) 대신 직접 체크
         if (searchQuery == null || searchQuery.trim().isEmpty()) {
             return null;
         }
-        return QItem.item.itemName.contains(searchQuery);
+        return indexedContains(ItemSearchIndex.Field.ITEM_NAME, QItem.item.itemName, searchQuery);
+    }
+
+    //검색 인덱스로 후보 id를 먼저 찾고, 그 후보들 중에서만 LIKE 검사를 하도록 조건을 만듦
+    //id in (...) 조건이 PK를 타기 때문에 테이블 전체를 읽지 않음
+    //인덱스를 쓸 수 없는 경우(준비 전, 후보가 너무 많음)에는 기존 LIKE 조건 그대로 사용
+    private BooleanExpression indexedContains(ItemSearchIndex.Field field, StringPath path, String searchQuery) {
+        Set<Long> candidates = itemSearchIndex.findCandidates(field, searchQuery);
+
+        if (candidates == null) {
+            return path.contains(searchQuery);
+        }
+        if (candidates.isEmpty()) {
+            return QItem.item.id.isNull(); // id는 null일 수 없으므로 결과 없음
+        }
+        return QItem.item.id.in(candidates).and(path.contains(searchQuery));
     }
 
 }
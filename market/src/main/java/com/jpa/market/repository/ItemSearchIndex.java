@@ -0,0 +1,210 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.entity.QItem;
+import com.jpa.market.event.ItemChangedEvent;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+//상품명/상품 상세설명에 대한 메모리 n-gram 역색인
+//LIKE '%검색어%'는 인덱스를 못 타서 item 테이블 전체를 읽게 되므로
+//검색어를 n-gram으로 쪼개서 해당 글자조각을 가진 상품 id만 먼저 찾아냄
+//한글은 한 글자(음절)도 의미가 있으므로 1~3글자 조각을 모두 색인함
+//
+//여기서 찾은 id는 "후보"일 뿐이라서(조각이 다른 위치에 있을 수 있음)
+//최종 확인은 쿼리에서 id in (...) and like 로 처리함 -> PK로 몇 건만 읽고 검사
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    public enum Field {
+        ITEM_NAME,
+        ITEM_DETAIL
+    }
+
+    private static final int MAX_GRAM = 3;
+
+    //서버 시작 시 한번에 읽어올 상품 수
+    private static final int WARMUP_CHUNK_SIZE = 1000;
+
+    //필드별 역색인 : 글자조각 -> 상품 id 집합
+    private final Map<Field, Map<String, Set<Long>>> postings = new EnumMap<>(Field.class);
+
+    //상품별로 어떤 조각을 색인했는지 기억 (수정 시 기존 조각을 지우기 위해)
+    private final Map<Field, Map<Long, Set<String>>> docGrams = new EnumMap<>(Field.class);
+
+    private final JPAQueryFactory queryFactory;
+
+    //후보가 이 개수를 넘으면 in 절이 너무 커지므로 인덱스를 쓰지 않고 기존 LIKE로 처리
+    private final int maxCandidates;
+
+    //서버 시작 후 전체 상품 색인이 끝났는지 여부
+    //끝나기 전에는 검색 결과가 빠질 수 있으므로 LIKE로 처리함
+    private volatile boolean ready = false;
+
+    public ItemSearchIndex(EntityManager em,
+                           @Value("${search.index.max-candidates:1000}") int maxCandidates) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.maxCandidates = maxCandidates;
+
+        for (Field field : Field.values()) {
+            postings.put(field, new ConcurrentHashMap<>());
+            docGrams.put(field, new ConcurrentHashMap<>());
+        }
+    }
+
+    //서버가 뜬 후 기존 상품 전체를 id 순으로 나눠서 색인
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        QItem item = QItem.item;
+        long lastId = 0L;
+        int count = 0;
+
+        while (true) {
+            List<Tuple> rows = queryFactory
+                    .select(item.id, item.itemName, item.itemDetail)
+                    .from(item)
+                    .where(item.id.gt(lastId))
+                    .orderBy(item.id.asc())
+                    .limit(WARMUP_CHUNK_SIZE)
+                    .fetch();
+
+            for (Tuple row : rows) {
+                Long itemId = row.get(item.id);
+                //시작 도중에 이벤트로 이미 색인된 상품은 DB에서 읽은 값이 더 오래된 값일 수 있으므로 건너뜀
+                if (!docGrams.get(Field.ITEM_NAME).containsKey(itemId)) {
+                    index(itemId, row.get(item.itemName), row.get(item.itemDetail));
+                }
+                lastId = itemId;
+            }
+            count += rows.size();
+
+            if (rows.size() < WARMUP_CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        ready = true;
+        log.info("상품 검색 인덱스 준비 완료 (상품 수: {})", count);
+    }
+
+    //커밋된 변경만 반영 (롤백된 상품이 검색되면 안되므로)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        //재고 변경은 상품명/상세설명과 상관없음
+        if (event.getType() == ItemChangedEvent.Type.STOCK) {
+            return;
+        }
+        index(event.getItemId(), event.getItemName(), event.getItemDetail());
+    }
+
+    //상품 하나를 (재)색인
+    //쓰기는 상품 등록/수정 때만 일어나므로 동기화해도 부담 없음. 읽기는 락 없이 처리
+    public synchronized void index(Long itemId, String itemName, String itemDetail) {
+        indexField(Field.ITEM_NAME, itemId, itemName);
+        indexField(Field.ITEM_DETAIL, itemId, itemDetail);
+    }
+
+    public synchronized void remove(Long itemId) {
+        indexField(Field.ITEM_NAME, itemId, null);
+        indexField(Field.ITEM_DETAIL, itemId, null);
+    }
+
+    /**
+     * 검색어를 포함할 가능성이 있는 상품 id 후보를 반환
+     * @return 후보 id 집합. null이면 인덱스로 좁힐 수 없다는 뜻이므로 LIKE로 처리해야 함
+     */
+    public Set<Long> findCandidates(Field field, String searchQuery) {
+        if (!ready || searchQuery == null) {
+            return null;
+        }
+
+        String query = normalize(searchQuery);
+        if (query.isEmpty()) {
+            return null;
+        }
+
+        // 3글자 이상이면 3글자 조각들, 그보다 짧으면 검색어 자체가 하나의 조각
+        Set<String> grams = query.length() > MAX_GRAM ? grams(query, MAX_GRAM) : Set.of(query);
+
+        Map<String, Set<Long>> fieldPostings = postings.get(field);
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams) {
+            Set<Long> ids = fieldPostings.get(gram);
+            if (ids == null || ids.isEmpty()) {
+                return Collections.emptySet(); // 없는 조각이 하나라도 있으면 결과 없음
+            }
+            lists.add(ids);
+        }
+
+        // 가장 작은 목록부터 교집합을 구해야 빠름
+        lists.sort(Comparator.comparingInt(Set::size));
+        if (lists.get(0).size() > maxCandidates) {
+            return null;
+        }
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void indexField(Field field, Long itemId, String text) {
+        Map<String, Set<Long>> fieldPostings = postings.get(field);
+
+        // 1. 기존 조각 제거
+        Set<String> oldGrams = docGrams.get(field).remove(itemId);
+        if (oldGrams != null) {
+            for (String gram : oldGrams) {
+                Set<Long> ids = fieldPostings.get(gram);
+                if (ids != null) {
+                    ids.remove(itemId);
+                    if (ids.isEmpty()) {
+                        fieldPostings.remove(gram, ids);
+                    }
+                }
+            }
+        }
+
+        if (text == null) {
+            return;
+        }
+
+        // 2. 새 조각 등록 (1~3글자 조각 전부)
+        String normalized = normalize(text);
+        Set<String> newGrams = new HashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            newGrams.addAll(grams(normalized, n));
+        }
+
+        for (String gram : newGrams) {
+            fieldPostings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(itemId);
+        }
+        docGrams.get(field).put(itemId, newGrams);
+    }
+
+    //MySQL 기본 콜레이션은 대소문자를 구분하지 않으므로 소문자로 맞춰서 색인
+    private String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Set<String> grams(String text, int n) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + n <= text.length(); i++) {
+            result.add(text.substring(i, i + n));
+        }
+        return result;
+    }
+}
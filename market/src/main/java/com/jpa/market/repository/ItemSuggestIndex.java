@@ -0,0 +1,310 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.constant.OrderStatus;
+import com.jpa.market.dto.ItemSuggestDto;
+import com.jpa.market.entity.QItem;
+import com.jpa.market.entity.QOrder;
+import com.jpa.market.entity.QOrderItem;
+import com.jpa.market.event.ItemChangedEvent;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+//검색창 자동완성용 상품명 접두어 트리(trie)
+//상품명을 한 글자씩 따라 내려가는 트리를 만들고, 각 노드에 "이 접두어로 시작하는 인기 상품 상위 N개"를 미리 저장해둠
+//  -> 자동완성 요청은 검색어 길이만큼 트리를 내려가서 저장된 목록을 그대로 반환 (DB 조회 없음)
+//인기도는 주문 수량 합계 (취소된 주문 제외)
+@Slf4j
+@Component
+public class ItemSuggestIndex {
+
+    //노드마다 저장해두는 인기 상품 수 (자동완성 최대 개수)
+    public static final int MAX_SUGGESTIONS = 10;
+
+    //이보다 긴 상품명은 앞부분까지만 트리에 넣음 (메모리 절약)
+    private static final int MAX_DEPTH = 20;
+
+    private static final int WARMUP_CHUNK_SIZE = 1000;
+
+    //인기 순 정렬 : 주문 수량 많은 순, 같으면 최신 상품 순
+    private static final Comparator<Entry> RANKING =
+            Comparator.comparingLong(Entry::score).reversed().thenComparing(Entry::itemId, Comparator.reverseOrder());
+
+    private final JPAQueryFactory queryFactory;
+
+    private final Node root = new Node();
+
+    //상품별 현재 등록 정보 (쓰기 락 안에서만 사용)
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    public ItemSuggestIndex(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    //서버가 뜬 후 주문 수량 합계와 전체 상품명으로 트리를 만듦
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        QItem item = QItem.item;
+        QOrder order = QOrder.order;
+        QOrderItem orderItem = QOrderItem.orderItem;
+
+        // 1. 상품별 주문 수량 합계 (group by 한 번)
+        Map<Long, Long> popularity = new HashMap<>();
+        List<Tuple> scores = queryFactory
+                .select(orderItem.item.id, orderItem.count.sum())
+                .from(orderItem)
+                .join(orderItem.order, order)
+                .where(order.orderStatus.eq(OrderStatus.ORDER))
+                .groupBy(orderItem.item.id)
+                .fetch();
+        for (Tuple row : scores) {
+            // JPQL의 sum은 Long으로 반환되므로 Number로 받음
+            Number sum = row.get(1, Number.class);
+            popularity.put(row.get(0, Long.class), sum == null ? 0L : sum.longValue());
+        }
+
+        // 2. 상품명을 id 순으로 나눠서 등록
+        long lastId = 0L;
+        int count = 0;
+        while (true) {
+            List<Tuple> rows = queryFactory
+                    .select(item.id, item.itemName)
+                    .from(item)
+                    .where(item.id.gt(lastId))
+                    .orderBy(item.id.asc())
+                    .limit(WARMUP_CHUNK_SIZE)
+                    .fetch();
+
+            for (Tuple row : rows) {
+                Long itemId = row.get(item.id);
+                put(itemId, row.get(item.itemName), popularity.getOrDefault(itemId, 0L), false);
+                lastId = itemId;
+            }
+            count += rows.size();
+
+            if (rows.size() < WARMUP_CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        ready = true;
+        log.info("상품 자동완성 인덱스 준비 완료 (상품 수: {})", count);
+    }
+
+    //커밋된 변경만 반영
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> put(event.getItemId(), event.getItemName(), 0L, true);
+            // 주문이면 재고가 줄어든 만큼 인기도 증가, 취소면 감소
+            case STOCK -> addScore(event.getItemId(), -event.getStockDelta());
+        }
+    }
+
+    /**
+     * 접두어로 시작하는 상품을 인기 순으로 반환
+     * @param limit 최대 MAX_SUGGESTIONS개
+     */
+    public List<ItemSuggestDto> suggest(String prefix, int limit) {
+        if (!ready || prefix == null) {
+            return List.of();
+        }
+        String query = normalize(prefix);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Node node = root;
+        for (int i = 0; i < Math.min(query.length(), MAX_DEPTH); i++) {
+            node = node.children.get(query.charAt(i));
+            if (node == null) {
+                return List.of();
+            }
+        }
+
+        List<ItemSuggestDto> result = new ArrayList<>();
+        for (Entry entry : node.top) {
+            if (result.size() >= limit) {
+                break;
+            }
+            // 트리 깊이보다 긴 검색어는 나머지 부분을 직접 비교
+            if (query.length() > MAX_DEPTH && !entry.normalizedName().startsWith(query)) {
+                continue;
+            }
+            result.add(new ItemSuggestDto(entry.itemId(), entry.itemName()));
+        }
+        return result;
+    }
+
+    //상품 등록 또는 상품명 변경
+    //keepScore가 true면 이미 등록된 상품의 인기도를 유지함
+    public synchronized void put(Long itemId, String itemName, long score, boolean keepScore) {
+        Entry old = entries.get(itemId);
+        if (old != null) {
+            if (!keepScore) {
+                return; // 서버 시작 중 이벤트로 이미 최신 정보가 들어온 상품
+            }
+            score = old.score();
+            removeFromTree(old);
+        }
+        if (itemName == null) {
+            entries.remove(itemId);
+            return;
+        }
+
+        Entry entry = new Entry(itemId, itemName, normalize(itemName), score);
+        entries.put(itemId, entry);
+        addToTree(entry);
+    }
+
+    public synchronized void remove(Long itemId) {
+        Entry old = entries.remove(itemId);
+        if (old != null) {
+            removeFromTree(old);
+        }
+    }
+
+    public synchronized void addScore(Long itemId, long delta) {
+        Entry old = entries.get(itemId);
+        if (old == null || delta == 0) {
+            return;
+        }
+        Entry entry = new Entry(itemId, old.itemName(), old.normalizedName(), Math.max(0L, old.score() + delta));
+        entries.put(itemId, entry);
+
+        for (Node node : path(entry.normalizedName(), false)) {
+            boolean wasInTop = containsItem(node.top, itemId);
+            if (delta < 0 && wasInTop) {
+                // 순위가 내려가면 목록 밖의 상품이 들어올 수 있으므로 하위 트리에서 다시 계산
+                node.top = collectTop(node);
+            } else if (delta > 0 || wasInTop) {
+                node.top = merge(node.top, entry);
+            }
+        }
+    }
+
+    private void addToTree(Entry entry) {
+        List<Node> path = path(entry.normalizedName(), true);
+        if (path.isEmpty()) {
+            return;
+        }
+        path.get(path.size() - 1).itemIds.add(entry.itemId());
+        for (Node node : path) {
+            node.top = merge(node.top, entry);
+        }
+    }
+
+    private void removeFromTree(Entry entry) {
+        List<Node> path = path(entry.normalizedName(), false);
+        if (path.isEmpty()) {
+            return;
+        }
+        path.get(path.size() - 1).itemIds.remove(entry.itemId());
+
+        for (Node node : path) {
+            if (containsItem(node.top, entry.itemId())) {
+                node.top = collectTop(node);
+            }
+        }
+
+        // 아래에서부터 비어있는 노드 정리
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (!node.children.isEmpty() || !node.itemIds.isEmpty()) {
+                break;
+            }
+            Node parent = (i == 0) ? root : path.get(i - 1);
+            parent.children.remove(entry.normalizedName().charAt(i), node);
+        }
+    }
+
+    //상품명을 따라 내려가는 노드 목록 (create가 false면 있는 노드까지만)
+    private List<Node> path(String normalizedName, boolean create) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < Math.min(normalizedName.length(), MAX_DEPTH); i++) {
+            char c = normalizedName.charAt(i);
+            node = create ? node.children.computeIfAbsent(c, k -> new Node()) : node.children.get(c);
+            if (node == null) {
+                break;
+            }
+            path.add(node);
+        }
+        return path;
+    }
+
+    //기존 목록에서 같은 상품을 빼고 새 정보를 넣은 뒤 상위 N개만 남김 (새 목록을 만들어서 교체)
+    private List<Entry> merge(List<Entry> top, Entry entry) {
+        List<Entry> result = new ArrayList<>(top.size() + 1);
+        for (Entry e : top) {
+            if (!e.itemId().equals(entry.itemId())) {
+                result.add(e);
+            }
+        }
+        result.add(entry);
+        result.sort(RANKING);
+        return List.copyOf(result.size() > MAX_SUGGESTIONS ? result.subList(0, MAX_SUGGESTIONS) : result);
+    }
+
+    //하위 트리 전체에서 상위 N개를 다시 계산 (상품 삭제/순위 하락 시에만 사용)
+    private List<Entry> collectTop(Node start) {
+        PriorityQueue<Entry> heap = new PriorityQueue<>(RANKING.reversed());
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            for (Long itemId : node.itemIds) {
+                heap.offer(entries.get(itemId));
+                if (heap.size() > MAX_SUGGESTIONS) {
+                    heap.poll();
+                }
+            }
+            stack.addAll(node.children.values());
+        }
+
+        List<Entry> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return List.copyOf(result);
+    }
+
+    private boolean containsItem(List<Entry> top, Long itemId) {
+        for (Entry e : top) {
+            if (e.itemId().equals(itemId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    //트리 노드
+    //children은 읽기 스레드가 락 없이 따라 내려가므로 ConcurrentHashMap
+    //top은 쓰기 때마다 새 목록으로 교체하므로(copy-on-write) 읽는 쪽은 항상 완성된 목록을 봄
+    private static final class Node {
+        final Map<Character, Node> children = new ConcurrentHashMap<>();
+
+        //이 노드에서 끝나는 상품 id (쓰기 락 안에서만 사용)
+        final Set<Long> itemIds = new HashSet<>();
+
+        volatile List<Entry> top = List.of();
+    }
+
+    private record Entry(Long itemId, String itemName, String normalizedName, long score) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.jpa.market.repository;
+
+import com.jpa.market.entity.MemberOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface MemberOrderSummaryRepository extends JpaRepository<MemberOrderSummary, Long> {
+
+    //로그인 id로 회원 주문 요약 조회 (회원 조회 없이 한 번에)
+    @Query("select s from MemberOrderSummary s, Member m " +
+            "where m.id = s.memberId and m.loginId = :loginId")
+    Optional<MemberOrderSummary> findByLoginId(@Param("loginId") String loginId);
+
+    //주문 추가 (요약 행이 없으면 새로 만들고, 있으면 더함)
+    //MySQL의 insert ... on duplicate key update로 조회 없이 한 문장으로 처리
+    @Modifying
+    @Query(value = "insert into member_order_summary (member_id, order_count, total_price, item_count, update_time) " +
+            "values (:memberId, :orderCount, :totalPrice, :itemCount, :now) " +
+            "on duplicate key update " +
+            "order_count = order_count + :orderCount, " +
+            "total_price = total_price + :totalPrice, " +
+            "item_count = item_count + :itemCount, " +
+            "update_time = :now", nativeQuery = true)
+    int addOrders(@Param("memberId") Long memberId, @Param("orderCount") int orderCount,
+                  @Param("totalPrice") long totalPrice, @Param("itemCount") long itemCount,
+                  @Param("now") LocalDateTime now);
+
+    //주문 취소
+    @Modifying
+    @Query("update MemberOrderSummary s set " +
+            "s.orderCount = s.orderCount - 1, " +
+            "s.totalPrice = s.totalPrice - :totalPrice, " +
+            "s.itemCount = s.itemCount - :itemCount, " +
+            "s.updateTime = :now " +
+            "where s.memberId = :memberId")
+    int subtractOrder(@Param("memberId") Long memberId, @Param("totalPrice") long totalPrice,
+                      @Param("itemCount") long itemCount, @Param("now") LocalDateTime now);
+
+    //회원들의 요약을 주문(보관된 주문 포함)으로 다시 계산해서 덮어씀 (처음 배포할 때 OrderTotalsBackfillJob에서 사용)
+    //요약 행이 이미 있어도(그 사이 들어온 주문) 집계값으로 맞춤
+    //insert ... select는 읽은 주문 행을 잠그므로, 계산하는 동안 같은 회원의 새 주문은 기다렸다가 집계값 위에 더해짐
+    @Modifying
+    @Query(value = "insert into member_order_summary (member_id, order_count, total_price, item_count, update_time) " +
+            "select o.member_id, count(*), sum(o.total_price), sum(o.item_count), :now from (" +
+            "select member_id, total_price, item_count from orders " +
+            "where order_status = 'ORDER' and member_id in :memberIds " +
+            "union all " +
+            "select member_id, total_price, item_count from orders_archive " +
+            "where order_status = 'ORDER' and member_id in :memberIds" +
+            ") o group by o.member_id " +
+            "on duplicate key update " +
+            "order_count = values(order_count), " +
+            "total_price = values(total_price), " +
+            "item_count = values(item_count), " +
+            "update_time = values(update_time)", nativeQuery = true)
+    int rebuildMembers(@Param("memberIds") Collection<Long> memberIds, @Param("now") LocalDateTime now);
+}
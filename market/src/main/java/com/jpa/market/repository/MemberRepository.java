@@ -3,6 +3,8 @@ package com.jpa.market.repository;
 import com.jpa.market.entity.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface MemberRepository extends JpaRepository<Member, Long> {
@@ -20,4 +22,7 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     //로그인 처리를 위해 id에 해당하는 사람 찾아오기
     //비번은 시큐리티가 처리
     Optional<Member> findByLoginId(String loginId);
+
+    //여러 회원을 한 번에 조회 (대기열 주문 일괄 처리)
+    List<Member> findByLoginIdIn(Collection<String> loginIds);
 }
@@ -1,9 +1,23 @@
 package com.jpa.market.repository;
 
+import com.jpa.market.dto.OrderItemQueryDto;
 import com.jpa.market.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+import java.util.Collection;
+import java.util.List;
 
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
+    //여러 주문의 주문상품을 상품명, 대표 이미지와 함께 한 번에 조회 (주문 내역 화면용)
+    //주문마다, 주문상품마다 따로 조회하지 않도록 in 절로 묶어서 조회함
+    @Query("select new com.jpa.market.dto.OrderItemQueryDto(" +
+            "oi.order.id, i.itemName, oi.count, oi.orderPrice, i.repImgUrl) " +
+            "from OrderItem oi " +
+            "join oi.item i " +
+            "where oi.order.id in :orderIds " +
+            "order by oi.id asc")
+    List<OrderItemQueryDto> findOrderItemDtoList(@Param("orderIds") Collection<Long> orderIds);
 }
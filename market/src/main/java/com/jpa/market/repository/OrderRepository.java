@@ -4,6 +4,7 @@ import com.jpa.market.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -18,6 +19,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "order by o.orderDate desc")
     Page<Order> findOrders(@Param("loginId") String loginId, Pageable pageable);
 
+    //주문 상태가 ORDER인 경우에만 CANCEL로 변경 (이미 취소된 주문이면 0 반환)
+    //동시에 취소 요청이 두 번 와도 한 번만 성공하므로 재고가 두 번 복구되지 않음
+    @Modifying
+    @Query("update Order o set o.orderStatus = com.jpa.market.constant.OrderStatus.CANCEL " +
+            "where o.id = :orderId and o.orderStatus = com.jpa.market.constant.OrderStatus.ORDER")
+    int cancelIfOrdered(@Param("orderId") Long orderId);
+
     // 2. 특정 사용자의 전체 주문 개수 조회 -> Pageable이 알아서 계산해주므로 필요없음
 //    @Query("select count(o) from Order o " +
 //            "where o.member.loginId = :loginId")
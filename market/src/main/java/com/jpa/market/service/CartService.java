@@ -1,16 +1,15 @@
 package com.jpa.market.service;
 
+import com.jpa.market.dto.CartCountDto;
 import com.jpa.market.dto.CartDetailDto;
 import com.jpa.market.dto.CartItemDto;
+import com.jpa.market.dto.CartOrderLineDto;
+import com.jpa.market.dto.CartQuoteDto;
 import com.jpa.market.dto.OrderDto;
-import com.jpa.market.entity.Cart;
-import com.jpa.market.entity.CartItem;
-import com.jpa.market.entity.Item;
-import com.jpa.market.entity.Member;
+import com.jpa.market.dto.OrderTicketDto;
+import com.jpa.market.dto.QueuedOrderDto;
 import com.jpa.market.repository.CartItemRepository;
-import com.jpa.market.repository.CartRepository;
 import com.jpa.market.repository.ItemRepository;
-import com.jpa.market.repository.MemberRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,7 +17,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,68 +32,73 @@ public class CartService {
 
     //의존성 주입
     private final ItemRepository itemRepository;
-    private final MemberRepository memberRepository;
-    private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    //장바구니 저장소 (DB에 바로 반영 / 메모리에 두고 모아서 반영)
+    private final CartStore cartStore;
     //**"남의 집 일"**을 시킬 때는 그 집의 대리인인 **서비스(Service)**를 부르고,
     // **"내 집(내 엔티티) 관련 일"**을 할 때는 직접 창고인 **레포지토리(Repository)**
     private final OrderService orderService;    //주문과 관련된 복잡한 규칙들을 처리하기위해 service 주입
+    //비동기 주문 대기열
+    private final OrderPipeline orderPipeline;
 
     public Long addCart(CartItemDto cartItemDto, String loginId) {
 
-        // 1. 상품 조회
-        Item item = itemRepository.findById(cartItemDto.getItemId())
-                .orElseThrow(() -> new EntityNotFoundException("상품을 찾을 수 없습니다."));
-
-        // 2. 회원 조회
-        Member member = memberRepository.findByLoginId(loginId)
-                .orElseThrow(() -> new EntityNotFoundException("사용자를 찾을 수 없습니다."));
+        // 장바구니에 담기 (상품 확인, 회원/장바구니 조회와 저장은 저장소에서 처리)
+        //상품이 없으면 EntityNotFoundException
+        return cartStore.addItem(loginId, cartItemDto.getItemId(), cartItemDto.getCount());
+    }
 
-        // 3. 현재 로그인한 회원의 장바구니 엔티티 조회
-        Cart cart = cartRepository.findByMemberId(member.getId());
+    /**
+     * 장바구니 주문 미리보기 (주문 생성/재고 차감/장바구니 삭제 없이 조회만)
+     * 실제 주문 전에 품절/재고 부족/가격 변경을 미리 확인해서, 락을 잡았다가 롤백되는 주문을 줄임
+     * 재고는 조회 시점 기준이므로 실제 주문 시에는 다시 확인함
+     */
+    @Transactional(readOnly = true)
+    public CartQuoteDto quoteCartOrder(List<Long> cartItemIds, String loginId) {
+        if (cartItemIds == null || cartItemIds.isEmpty()) {
+            throw new IllegalArgumentException("주문할 상품을 선택해주세요.");
+        }
 
-        // 4. 장바구니가 없으면 새로 생성
-        if (cart == null) {
-            cart = Cart.createCart(member);
-            cartRepository.save(cart);
+        // 장바구니 목록 조회 한 번으로 선택한 상품의 현재 가격/재고/판매상태를 모두 가져옴
+        Map<Long, CartDetailDto> cartDetails = new HashMap<>();
+        for (CartDetailDto cartDetail : cartStore.getCartDetails(loginId)) {
+            cartDetails.put(cartDetail.getCartItemId(), cartDetail);
         }
 
-        // 5. 현재 상품이 장바구니에 이미 들어있는지 확인
-        CartItem savedCartItem = cartItemRepository.findByCartIdAndItemId(cart.getId(), item.getId());
-
-        if (savedCartItem != null) {
-            // 6-1. 이미 있으면 수량만 증가
-            savedCartItem.addCount(cartItemDto.getCount());
-            return savedCartItem.getId();
-        } else {
-            // 6-2. 없으면 CartItem 생성 후 저장
-            CartItem cartItem = CartItem.createCartItem(cart, item, cartItemDto.getCount());
-            cartItemRepository.save(cartItem);
-            return cartItem.getId();
+        List<CartDetailDto> selected = new ArrayList<>();
+        for (Long cartItemId : new LinkedHashSet<>(cartItemIds)) {
+            CartDetailDto cartDetail = cartDetails.get(cartItemId);
+            if (cartDetail == null) {
+                throw new EntityNotFoundException("장바구니 상품을 찾을 수 없습니다. (ID: " + cartItemId + ")");
+            }
+            selected.add(cartDetail);
         }
+        return new CartQuoteDto(selected);
     }
 
-    @Transactional(readOnly = true)
-    public List<CartDetailDto> getCartList(String loginId) {
-
-        List<CartDetailDto> cartDetailDtoList = new ArrayList<>();
-
-        // 1. 현재 로그인한 회원 조회
-        Member member = memberRepository.findByLoginId(loginId)
-                .orElseThrow(() -> new EntityNotFoundException("사용자를 찾을 수 없습니다."));
+    //비회원 장바구니를 회원 장바구니에 합치기 (로그인 성공 시)
+    //비회원 장바구니는 DB를 거치지 않고 담았으므로 그 사이에 삭제된 상품은 건너뜀
+    public void mergeGuestCart(Map<Long, Integer> counts, String loginId) {
+        if (counts.isEmpty()) {
+            return;
+        }
 
-        // 2. 해당 회원의 장바구니 조회
-        Cart cart = cartRepository.findByMemberId(member.getId());
+        Set<Long> existingIds = new HashSet<>(itemRepository.findExistingIds(counts.keySet()));
+        Map<Long, Integer> mergeCounts = new LinkedHashMap<>();
+        counts.forEach((itemId, count) -> {
+            if (existingIds.contains(itemId)) {
+                mergeCounts.put(itemId, count);
+            }
+        });
 
-        // 3. 장바구니가 비어있으면 빈 리스트 반환
-        if(cart == null){
-            return cartDetailDtoList;
+        if (!mergeCounts.isEmpty()) {
+            cartStore.addItems(loginId, mergeCounts);
         }
+    }
 
-        // 4. 장바구니에 담긴 상품 목록 조회
-        cartDetailDtoList = cartItemRepository.findCartDetailDtoList(cart.getId());
-
-        return cartDetailDtoList;
+    @Transactional(readOnly = true)
+    public List<CartDetailDto> getCartList(String loginId) {
+        return cartStore.getCartDetails(loginId);
     }
 
     // 수량 업데이트
@@ -100,31 +110,38 @@ public class CartService {
             throw new IllegalArgumentException("최소 1개 이상의 수량을 입력해주세요.");
         }
 
-        // 2. 상품 존재 확인
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new EntityNotFoundException("장바구니 상품을 찾을 수 없습니다."));
+        // 2. 업데이트 (존재 확인과 보안 체크는 저장소에서 처리)
+        cartStore.updateCount(cartItemId, count, loginId);
+    }
 
-        // 3. 보안 체크: 주문 취소 때와 똑같이 loginId 비교
-        if (!cartItem.getCart().getMember().getLoginId().equals(loginId)) {
-            throw new AccessDeniedException("주문 수정 권한이 없습니다.");
+    // 장바구니 일괄 수정 (수량 변경 + 삭제를 한 트랜잭션에서)
+    public void updateCartItems(List<CartCountDto> counts, List<Long> deleteCartItemIds, String loginId) {
+        // 1. 같은 상품을 두 번 바꾸거나, 바꾸면서 삭제하는 요청은 차단
+        if (counts == null || deleteCartItemIds == null) {
+            throw new IllegalArgumentException("수정할 내용이 올바르지 않습니다.");
+        }
+        Map<Long, Integer> countMap = new LinkedHashMap<>();
+        for (CartCountDto dto : counts) {
+            if (dto.getCount() <= 0) {
+                throw new IllegalArgumentException("최소 1개 이상의 수량을 입력해주세요.");
+            }
+            if (countMap.put(dto.getCartItemId(), dto.getCount()) != null) {
+                throw new IllegalArgumentException("같은 장바구니 상품이 중복되었습니다. (ID: " + dto.getCartItemId() + ")");
+            }
+        }
+        Set<Long> deleteIds = new LinkedHashSet<>(deleteCartItemIds);
+        for (Long cartItemId : deleteIds) {
+            if (countMap.containsKey(cartItemId)) {
+                throw new IllegalArgumentException("같은 장바구니 상품이 중복되었습니다. (ID: " + cartItemId + ")");
+            }
         }
 
-        // 4. 업데이트
-        cartItem.updateCount(count);
+        // 2. 수정 (존재 확인과 보안 체크는 저장소에서 한 번에 처리)
+        cartStore.updateItems(countMap, deleteIds, loginId);
     }
 
     public void deleteCartItem(Long cartItemId, String loginId) {
-        // 1. 삭제할 아이템 조회
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new EntityNotFoundException("삭제하려는 상품이 없습니다."));
-
-        // 2. 보안 체크: 로그인한 사용자와 장바구니 주인이 같은지 확인
-        if (!cartItem.getCart().getMember().getLoginId().equals(loginId)) {
-            throw new AccessDeniedException("삭제 권한이 없습니다.");
-        }
-
-        // 3. 삭제 실행
-        cartItemRepository.delete(cartItem);
+        cartStore.removeItem(cartItemId, loginId);
     }
 
     /**
@@ -133,40 +150,10 @@ public class CartService {
      * @param loginId : 현재 로그인한 사용자 ID (보안 검증용)
      */
     public Long orderCartItem(List<Long> cartItemIds, String loginId) {
-        // 1. 주문할 상품이 아예 선택되지 않았을 경우 서비스에서 차단
-        if (cartItemIds == null || cartItemIds.isEmpty()) {
-            throw new IllegalArgumentException("주문할 상품을 선택해주세요.");
-        }
-
-
-        // [준비 단계] OrderService에 넘겨줄 '순수 주문 정보' 바구니를 만듭니다.
-        List<OrderDto> orderDtoList = new ArrayList<>();
-
         // --- [1단계: 검증 및 변환] ---
-        // 화면에서 넘어온 '장바구니 번호'들만 가지고는 주문을 만들 수 없으므로,
-        // 하나씩 꺼내서 진짜 주문에 필요한 정보(상품ID, 수량)를 추출합니다.
-        for (Long cartItemId : cartItemIds) {
-
-            // 1-1. DB에서 장바구니 아이템 정보 조회 (없으면 예외 발생)
-            CartItem cartItem = cartItemRepository.findById(cartItemId)
-                    .orElseThrow(() -> new EntityNotFoundException("장바구니 상품을 찾을 수 없습니다. ID: " + cartItemId));
-
-            // 1-2. 권한 확인
-            //장바구니에 10개를 주문하면 10개 다 내것이어야함.
-            //그래서 반복문 안에서 권한 확인
-            if (!cartItem.getCart().getMember().getLoginId().equals(loginId)) {
-                throw new AccessDeniedException("해당 상품에 대한 주문 권한이 없습니다.");
-            }
-
-            // 1-3. 주문용 DTO로 변환
-            // 장바구니 엔티티(CartItem)를 그대로 넘기지 않고,
-            // 주문 로직에 꼭 필요한 정보인 [상품번호, 주문수량]만 쏙 뽑아서 DTO에 담습니다.
-            OrderDto orderDto = new OrderDto();
-            orderDto.setItemId(cartItem.getItem().getId());
-            orderDto.setCount(cartItem.getCount());
-
-            orderDtoList.add(orderDto);
-        }
+        // 메모리 장바구니를 쓰는 경우 아직 DB에 반영되지 않은 변경 내용부터 반영
+        cartStore.flush(loginId);
+        List<OrderDto> orderDtoList = toOrderDtoList(cartItemIds, loginId);
 
         // --- [2단계: 실제 주문 처리] ---
         // 검증이 끝난 리스트를 가지고 OrderService의 다중 주문 메서드를 호출합니다.
@@ -177,13 +164,60 @@ public class CartService {
         // --- [3단계: 장바구니 뒷정리] ---
         // 주문서가 성공적으로 써졌으니, 이제 장바구니에 담아뒀던 물건들은 비워줘야 합니다.
         // (보통 쇼핑몰에서 결제 완료 후 장바구니를 확인하면 물건이 사라지는 원리입니다.)
-        for (Long cartItemId : cartItemIds) {
-            // 이미 1단계에서 존재를 확인했으므로 바로 조회해서 삭제합니다.
-            CartItem cartItem = cartItemRepository.findById(cartItemId).orElseThrow();
-            cartItemRepository.delete(cartItem);
+        // 내 장바구니 상품만 delete 한 문장으로 삭제하고, 지운 개수가 모자라면 같은 상품을 동시에 주문한 것이므로
+        // 예외를 던져서 위에서 만든 주문까지 롤백합니다. (먼저 지운 주문만 성공)
+        Set<Long> selectedIds = new LinkedHashSet<>(cartItemIds);
+        int deleted = cartItemRepository.deleteOwnedCartItems(selectedIds, loginId);
+        if (deleted != selectedIds.size()) {
+            throw new IllegalStateException("이미 주문되었거나 장바구니에 없는 상품이 있습니다.");
         }
 
         // 최종적으로 생성된 주문 번호(ID)를 리턴합니다.
         return orderId;
     }
+
+    /**
+     * 장바구니에서 선택된 상품을 비동기 주문 대기열에 넣고 접수증 반환 (order.pipeline.enabled가 true일 때)
+     * 검증(권한 확인)은 여기서 바로 하고, 주문 생성과 장바구니 비우기는 대기열에서 처리
+     */
+    @Transactional(readOnly = true)
+    public OrderTicketDto queueCartOrder(List<Long> cartItemIds, String loginId) {
+        cartStore.flush(loginId);
+        List<OrderDto> orderDtoList = toOrderDtoList(cartItemIds, loginId);
+
+        return orderPipeline.submit(new QueuedOrderDto(loginId, orderDtoList, List.copyOf(cartItemIds)));
+    }
+
+    //선택된 장바구니 상품을 검증하고 주문용 DTO로 변환
+    //장바구니 상품 수와 상관없이 조회 한 번 (실패한 경우에만 원인 확인용 조회 한 번 더)
+    private List<OrderDto> toOrderDtoList(List<Long> cartItemIds, String loginId) {
+        // 1. 주문할 상품이 아예 선택되지 않았을 경우 서비스에서 차단
+        if (cartItemIds == null || cartItemIds.isEmpty()) {
+            throw new IllegalArgumentException("주문할 상품을 선택해주세요.");
+        }
+        Set<Long> selectedIds = new LinkedHashSet<>(cartItemIds);
+
+        // 2. 선택한 장바구니 상품 중 내 것만 한 번에 조회
+        List<CartOrderLineDto> lines = cartItemRepository.findCartOrderLines(selectedIds, loginId);
+
+        // 3. 선택한 개수와 조회된 개수가 다르면 없는 상품이거나 남의 장바구니 상품이 섞여있는 것
+        //장바구니에 10개를 주문하면 10개 다 내것이어야함.
+        if (lines.size() != selectedIds.size()) {
+            if (cartItemRepository.countByIdIn(selectedIds) != selectedIds.size()) {
+                throw new EntityNotFoundException("장바구니 상품을 찾을 수 없습니다.");
+            }
+            throw new AccessDeniedException("해당 상품에 대한 주문 권한이 없습니다.");
+        }
+
+        // 4. 주문용 DTO로 변환
+        // 주문 로직에 꼭 필요한 정보인 [상품번호, 주문수량]만 쏙 뽑아서 DTO에 담습니다.
+        List<OrderDto> orderDtoList = new ArrayList<>();
+        for (CartOrderLineDto line : lines) {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setItemId(line.getItemId());
+            orderDto.setCount(line.getCount());
+            orderDtoList.add(orderDto);
+        }
+        return orderDtoList;
+    }
 }
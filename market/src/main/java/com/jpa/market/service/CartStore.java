@@ -0,0 +1,37 @@
+package com.jpa.market.service;
+
+import com.jpa.market.dto.CartDetailDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//장바구니 저장소 (cart.store.type 설정으로 선택)
+//  - JpaCartStore (jpa, 기본값) : 요청마다 cart/cart_item 테이블에 바로 반영
+//  - MemoryCartStore (memory) : 회원별 장바구니를 메모리에 두고, 바뀐 내용을 모아서 주기적으로 DB에 반영
+//장바구니 주문은 DB의 cart_item을 기준으로 처리하므로 주문 전에 반드시 flush 호출
+public interface CartStore {
+
+    //장바구니에 상품 담기 (이미 담긴 상품이면 수량 증가). 장바구니 상품 id 반환, 없는 상품이면 EntityNotFoundException
+    Long addItem(String loginId, Long itemId, int count);
+
+    //장바구니 목록 (최근에 담은 순)
+    List<CartDetailDto> getCartDetails(String loginId);
+
+    //수량 변경. 없는 상품이면 EntityNotFoundException, 남의 장바구니 상품이면 AccessDeniedException
+    void updateCount(Long cartItemId, int count, String loginId);
+
+    //장바구니 상품 삭제. 없는 상품이면 EntityNotFoundException, 남의 장바구니 상품이면 AccessDeniedException
+    void removeItem(Long cartItemId, String loginId);
+
+    //여러 상품을 한 번에 담기 (비회원 장바구니 합치기). 이미 담긴 상품은 수량 증가
+    //상품 존재 여부는 호출하는 쪽에서 확인
+    void addItems(String loginId, Map<Long, Integer> counts);
+
+    //여러 상품의 수량 변경과 삭제를 한 번에 처리
+    //하나라도 없거나 남의 장바구니 상품이면 아무것도 바꾸지 않고 EntityNotFoundException / AccessDeniedException
+    void updateItems(Map<Long, Integer> counts, Set<Long> deleteIds, String loginId);
+
+    //아직 DB에 반영되지 않은 변경 내용을 바로 반영 (반영이 끝난 후에 리턴)
+    void flush(String loginId);
+}
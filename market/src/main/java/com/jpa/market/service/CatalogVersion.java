@@ -0,0 +1,29 @@
+package com.jpa.market.service;
+
+import com.jpa.market.event.ItemChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//상품 목록 화면의 버전 번호
+//상품 목록 내용이 바뀔 수 있는 변경이 커밋될 때마다 1씩 증가 -> 목록 응답의 ETag에 사용
+//서버가 재시작되면 이전 ETag와 겹치지 않도록 시작 시각(밀리초)부터 시작함
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        //목록에는 재고 수량이 표시되지 않으므로 판매상태가 바뀌지 않은 재고 변경은 무시
+        if (event.getType() == ItemChangedEvent.Type.STOCK && !event.isSellStatusChanged()) {
+            return;
+        }
+        version.incrementAndGet();
+    }
+}
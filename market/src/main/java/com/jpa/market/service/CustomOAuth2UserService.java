@@ -15,6 +15,7 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -104,10 +105,15 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
                     return memberRepository.save(newMember);
                 });
 
-        // 5. 시큐리티가인증 객체로 사용할 OAuth2User(유저 객체) 반환
+        // 5. 로그인 성공 후 처리(비회원 장바구니 합치기)에서 쓸 수 있도록 로그인 ID를 속성에 추가
+        //    소셜에서 받은 attributes는 수정할 수 없으므로 복사해서 추가
+        Map<String, Object> memberAttributes = new HashMap<>(attributes);
+        memberAttributes.put("loginId", loginId);
+
+        // 6. 시큐리티가인증 객체로 사용할 OAuth2User(유저 객체) 반환
         return new DefaultOAuth2User(
                 Collections.singleton(new SimpleGrantedAuthority(member.getRole().name())),
-                attributes,
+                memberAttributes,
                 nameAttributeKey// 카카오 응답의 식별자인 "id"를 키로 설정
         );
     }
@@ -2,6 +2,7 @@ package com.jpa.market.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -10,6 +11,8 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 
 @Service
@@ -28,9 +31,13 @@ public class FileService {
 
     //상황에 따라 다른 폴더에 저장하도록 설정
     // folder 파라미터를 추가하여 "items" 또는 "users" 등을 전달받음
+    //파일 내용을 byte[]로 한 번에 메모리에 올리지 않고 스트림으로 읽으면서 S3로 전송 (업로드 파일은 임시 파일에 있음)
+    //S3 전송이 실패해서 다시 시도할 때는 source에서 스트림을 새로 열어서 처음부터 전송
     public String uploadFile(String folder, //변경
                              String originalFileName,
-                             byte[] fileData) throws Exception {
+                             InputStreamSource source,
+                             long contentLength,
+                             String contentType) throws Exception {
 
         //uuid를 이용하여 고유한 파일 이름을 생성하기 위해 사용
         UUID uuid = UUID.randomUUID();
@@ -47,10 +54,20 @@ public class FileService {
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
-                .contentType("image/jpeg") // 실제론 파일 타입에 맞춰 동적 세팅 가능
+                .contentType(contentType)
+                .contentLength(contentLength)
                 .build();
 
-        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileData));
+        // 크기를 미리 알려주므로 SDK가 내용을 버퍼에 모으지 않고 바로 전송함
+        RequestBody requestBody = RequestBody.fromContentProvider(() -> {
+            try {
+                return source.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, contentLength, contentType);
+
+        s3Client.putObject(putObjectRequest, requestBody);
 
         //메서드 추가
         return getUploadUrl(key); // (삭제를 위해 key는 별도로 관리하거나 DB의 imgName에 저장하세요)
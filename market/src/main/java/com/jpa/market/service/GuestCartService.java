@@ -0,0 +1,212 @@
+package com.jpa.market.service;
+
+import com.jpa.market.dto.CartItemDto;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+
+//비회원 장바구니
+//로그인하지 않은 사용자의 장바구니는 서버에 저장하지 않고 서명된 쿠키(GUEST_CART)에 담아둠 (DB 접근 없음)
+//  쿠키 값 : base64url("상품id:수량,상품id:수량,...") + "." + base64url(HMAC-SHA256 서명)
+//  서명이 맞지 않는 쿠키(조작/다른 서버 키)는 빈 장바구니로 취급
+//로그인(일반/소셜)에 성공하면 회원 장바구니에 한 번에 합치고 쿠키를 지움 (CartService.mergeGuestCart)
+//상품 존재 여부는 담을 때 확인하지 않고 합칠 때 확인함
+@Slf4j
+@Service
+public class GuestCartService {
+
+    public static final String COOKIE_NAME = "GUEST_CART";
+
+    //쿠키 크기 제한(4KB) 안에 들어가도록 담을 수 있는 상품 수 제한
+    private static final int MAX_ITEMS = 30;
+
+    private static final int MAX_COUNT = 999;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec secretKey;
+
+    private final int maxAgeSeconds;
+
+    private final CartService cartService;
+
+    public GuestCartService(@Value("${cart.guest.secret:}") String secret,
+                            @Value("${cart.guest.max-age-days:7}") int maxAgeDays,
+                            CartService cartService) {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secret.isBlank()) {
+            // 키를 설정하지 않으면 서버가 뜰 때마다 새로 만듦 (재시작하면 기존 비회원 장바구니는 사라짐)
+            log.warn("cart.guest.secret이 설정되지 않아 임시 키를 사용합니다.");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        }
+        this.secretKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.maxAgeSeconds = maxAgeDays * 24 * 60 * 60;
+        this.cartService = cartService;
+    }
+
+    //비회원 장바구니 목록 (담은 순)
+    public List<CartItemDto> getItems(HttpServletRequest request) {
+        List<CartItemDto> items = new ArrayList<>();
+        read(request).forEach((itemId, count) -> {
+            CartItemDto dto = new CartItemDto();
+            dto.setItemId(itemId);
+            dto.setCount(count);
+            items.add(dto);
+        });
+        return items;
+    }
+
+    //상품 담기 (이미 담긴 상품이면 수량 증가)
+    public void addItem(Long itemId, int count, HttpServletRequest request, HttpServletResponse response) {
+        Map<Long, Integer> counts = read(request);
+        if (!counts.containsKey(itemId) && counts.size() >= MAX_ITEMS) {
+            throw new IllegalArgumentException("비회원 장바구니에는 최대 " + MAX_ITEMS + "개 상품까지 담을 수 있습니다.");
+        }
+        counts.merge(itemId, count, (saved, added) -> Math.min(saved + added, MAX_COUNT));
+        write(counts, response);
+    }
+
+    //수량 변경
+    public void updateCount(Long itemId, int count, HttpServletRequest request, HttpServletResponse response) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("최소 1개 이상의 수량을 입력해주세요.");
+        }
+        Map<Long, Integer> counts = read(request);
+        if (!counts.containsKey(itemId)) {
+            throw new IllegalArgumentException("장바구니에 담기지 않은 상품입니다.");
+        }
+        counts.put(itemId, Math.min(count, MAX_COUNT));
+        write(counts, response);
+    }
+
+    //상품 삭제
+    public void removeItem(Long itemId, HttpServletRequest request, HttpServletResponse response) {
+        Map<Long, Integer> counts = read(request);
+        if (counts.remove(itemId) != null) {
+            write(counts, response);
+        }
+    }
+
+    //로그인 성공 시 호출 : 비회원 장바구니를 회원 장바구니에 합치고 쿠키 삭제
+    //합치기에 실패해도 로그인은 성공해야 하므로 예외를 던지지 않음 (쿠키를 남겨두고 다음 로그인 때 다시 시도)
+    public void mergeOnLogin(String loginId, HttpServletRequest request, HttpServletResponse response) {
+        Map<Long, Integer> counts = read(request);
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        try {
+            cartService.mergeGuestCart(counts, loginId);
+            clear(response);
+        } catch (RuntimeException e) {
+            log.warn("비회원 장바구니 합치기 실패 (로그인 ID: {})", loginId, e);
+        }
+    }
+
+    //쿠키 읽기. 쿠키가 없거나 서명이 맞지 않으면 빈 장바구니
+    private Map<Long, Integer> read(HttpServletRequest request) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        if (request.getCookies() == null) {
+            return counts;
+        }
+
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                String payload = verify(cookie.getValue());
+                if (payload != null) {
+                    parse(payload, counts);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private void write(Map<Long, Integer> counts, HttpServletResponse response) {
+        if (counts.isEmpty()) {
+            clear(response);
+            return;
+        }
+
+        StringJoiner payload = new StringJoiner(",");
+        counts.forEach((itemId, count) -> payload.add(itemId + ":" + count));
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] payloadBytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+        String value = encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(sign(payloadBytes));
+
+        response.addCookie(createCookie(value, maxAgeSeconds));
+    }
+
+    private void clear(HttpServletResponse response) {
+        response.addCookie(createCookie("", 0));
+    }
+
+    private Cookie createCookie(String value, int maxAge) {
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge(maxAge);
+        return cookie;
+    }
+
+    //서명을 확인하고 장바구니 내용을 돌려줌. 형식이 틀리거나 서명이 맞지 않으면 null
+    private String verify(String value) {
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payloadBytes = decoder.decode(value.substring(0, dot));
+            byte[] signature = decoder.decode(value.substring(dot + 1));
+            // 시간 차이로 서명을 알아낼 수 없도록 항상 끝까지 비교
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+            return new String(payloadBytes, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void parse(String payload, Map<Long, Integer> counts) {
+        for (String line : payload.split(",")) {
+            String[] parts = line.split(":");
+            if (parts.length != 2 || counts.size() >= MAX_ITEMS) {
+                continue;
+            }
+            try {
+                long itemId = Long.parseLong(parts[0]);
+                int count = Integer.parseInt(parts[1]);
+                if (count > 0) {
+                    counts.put(itemId, Math.min(count, MAX_COUNT));
+                }
+            } catch (NumberFormatException e) {
+                // 서명된 값이므로 여기까지 오지 않지만, 잘못된 줄은 건너뜀
+            }
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("비회원 장바구니 서명 실패", e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.jpa.market.service;
+
+import com.jpa.market.config.exception.OutOfStockException;
+import com.jpa.market.event.ItemChangedEvent;
+import com.jpa.market.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//플래시 세일처럼 주문이 몰리는 인기 상품의 재고를 메모리에서 관리하는 장부
+//  - 설정(inventory.hot-items.ids)에 등록된 상품만 대상. 나머지 상품은 기존처럼 DB update로 차감
+//  - 재고를 여러 칸(stripe)에 나눠 담아서 동시에 주문해도 서로 다른 칸을 CAS로 차감 (락 없음)
+//  - 주문 트랜잭션이 커밋되면 차감량을 모아두었다가 주기적으로 한 문장으로 item 테이블에 반영
+//    (롤백되면 차감했던 재고를 다시 돌려놓음)
+//  - 서버 시작 시 DB 재고로 장부를 채우고, 종료 시 남은 차감량을 반영한 뒤 DB와 장부를 비교함
+//  - item 테이블은 반영할 때 바뀌므로 상품 목록 캐시 등에 알리는 재고 변경 이벤트도 반영 후에 한 번 더 발행함
+//
+//주의 : 서버가 비정상 종료되면 마지막 반영 이후(flush-interval-ms 이내)에 커밋된 차감량은 DB에 반영되지 않음
+//주의 : 장부는 서버(JVM)마다 따로 있으므로 서버를 여러 대 띄우면 각자 시작 시 재고를 전부 팔 수 있어 재고보다 많이 팔림
+//       여러 대로 운영할 때는 사용하지 말 것 (inventory.hot-items.enabled=false)
+@Slf4j
+@Component
+public class HotItemLedger {
+
+    private final boolean enabled;
+
+    private final List<Long> hotItemIds;
+
+    private final int stripeCount;
+
+    private final ItemRepository itemRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, ItemStock> stocks = new ConcurrentHashMap<>();
+
+    //서버 시작 후 장부를 채우기 전에는 모든 상품을 기존 방식으로 처리
+    private volatile boolean ready = false;
+
+    public HotItemLedger(@Value("${inventory.hot-items.enabled:false}") boolean enabled,
+                         @Value("${inventory.hot-items.ids:}") List<Long> hotItemIds,
+                         @Value("${inventory.hot-items.stripes:16}") int stripeCount,
+                         ItemRepository itemRepository,
+                         JdbcTemplate jdbcTemplate,
+                         ApplicationEventPublisher eventPublisher) {
+        this.enabled = enabled;
+        this.hotItemIds = hotItemIds;
+        this.stripeCount = Math.max(1, stripeCount);
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean isHot(Long itemId) {
+        return ready && stocks.containsKey(itemId);
+    }
+
+    //서버 시작 시 DB 재고로 장부 채우기
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        for (Long itemId : hotItemIds) {
+            itemRepository.findStockNumberById(itemId).ifPresentOrElse(
+                    stockNumber -> stocks.put(itemId, new ItemStock(stripeCount, stockNumber)),
+                    () -> log.warn("인기 상품으로 등록된 상품이 없습니다. (ID: {})", itemId));
+        }
+        ready = true;
+        log.info("인기 상품 재고 장부 준비 완료 (상품: {})", stocks.keySet());
+    }
+
+    /**
+     * 재고 차감. 재고가 부족하면 OutOfStockException
+     * @return 차감 후 남은 재고가 0이면 true (품절)
+     */
+    public boolean reserve(Long itemId, int count) {
+        ItemStock stock = stocks.get(itemId);
+
+        if (!stock.take(count)) {
+            throw new OutOfStockException("상품의 재고가 부족합니다. (현재 재고 수량: " + stock.available() + ")");
+        }
+        stock.inFlight.addAndGet(count);
+
+        // 커밋되면 DB 반영 대기로 넘기고, 롤백되면 재고를 돌려놓음
+        afterCompletion(committed -> {
+            stock.inFlight.addAndGet(-count);
+            if (committed) {
+                // 품절 표시는 pending보다 먼저 남겨서 같은 반영 주기에 함께 처리되도록 함
+                if (stock.available() == 0) {
+                    stock.sellStatusChanged.set(true);
+                }
+                stock.pending.addAndGet(count);
+            } else {
+                stock.give(count);
+            }
+        });
+        return stock.available() == 0;
+    }
+
+    /**
+     * 재고 복구 (주문 취소). 커밋된 후에 장부에 반영
+     * @return 복구 전 재고가 0이었으면 true (품절 -> 판매중)
+     */
+    public boolean release(Long itemId, int count) {
+        ItemStock stock = stocks.get(itemId);
+        boolean wasSoldOut = stock.available() == 0;
+
+        afterCompletion(committed -> {
+            if (committed) {
+                if (wasSoldOut) {
+                    stock.sellStatusChanged.set(true);
+                }
+                stock.give(count);
+                stock.pending.addAndGet(-count);
+            }
+        });
+        return wasSoldOut;
+    }
+
+    //관리자가 상품 수정으로 재고 수량을 직접 바꾼 경우 (DB에는 이미 반영됨)
+    //바뀐 만큼(새 재고 - 수정 전 재고)만 장부에 더하거나 뺌
+    public void adjust(Long itemId, int delta) {
+        ItemStock stock = stocks.get(itemId);
+
+        afterCompletion(committed -> {
+            if (!committed) {
+                return;
+            }
+            if (delta > 0) {
+                stock.give(delta);
+            } else if (delta < 0 && !stock.take(-delta)) {
+                // 이미 주문으로 빠진 재고보다 많이 줄인 경우 남은 재고를 모두 비움
+                stock.take(stock.available());
+            }
+        });
+    }
+
+    //커밋된 차감량을 모아서 item 테이블에 한 문장으로 반영
+    //반영 후(자동 커밋)에 재고 변경 이벤트를 발행해서 주문 시점에 캐시를 비운 뒤 다시 읽어간 반영 전 재고/판매상태를 버리게 함
+    @Scheduled(fixedDelayString = "${inventory.hot-items.flush-interval-ms:200}")
+    public void flush() {
+        if (!ready) {
+            return;
+        }
+
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        Set<Long> sellStatusChangedIds = new HashSet<>();
+        for (Map.Entry<Long, ItemStock> entry : stocks.entrySet()) {
+            ItemStock stock = entry.getValue();
+            if (stock.sellStatusChanged.getAndSet(false)) {
+                sellStatusChangedIds.add(entry.getKey());
+            }
+            int delta = stock.pending.getAndSet(0);
+            if (delta != 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (deltas.isEmpty() && sellStatusChangedIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (!deltas.isEmpty()) {
+                updateStocks(deltas);
+            }
+        } catch (RuntimeException e) {
+            // 반영에 실패하면 다음 주기에 다시 시도
+            deltas.forEach((itemId, delta) -> stocks.get(itemId).pending.addAndGet(delta));
+            sellStatusChangedIds.forEach(itemId -> stocks.get(itemId).sellStatusChanged.set(true));
+            log.error("인기 상품 재고 반영 실패 (다음 주기에 다시 시도): {}", deltas, e);
+            return;
+        }
+
+        // 인기도(자동완성)는 주문 시점 이벤트에서 이미 반영했으므로 변화량은 0으로 발행
+        Set<Long> changedIds = new LinkedHashSet<>(deltas.keySet());
+        changedIds.addAll(sellStatusChangedIds);
+        for (Long itemId : changedIds) {
+            eventPublisher.publishEvent(
+                    ItemChangedEvent.stockChanged(itemId, 0, sellStatusChangedIds.contains(itemId)));
+        }
+    }
+
+    //update item set
+    //    item_sell_status = case when 차감 후 재고 <= 0 then 'SOLD_OUT' when 재고가 늘었으면 'SELL' else 그대로 end,
+    //    stock_number = stock_number - (case item_id when ? then ? ... end), ...
+    //where item_id in (...)
+    //판매상태는 차감 전 재고로 계산해야 하므로 stock_number보다 먼저 set (MySQL은 왼쪽부터 처리)
+    private void updateStocks(Map<Long, Integer> deltas) {
+        StringBuilder deltaCase = new StringBuilder("(case item_id");
+        List<Object> deltaParams = new ArrayList<>();
+        deltas.forEach((itemId, delta) -> {
+            deltaCase.append(" when ? then ?");
+            deltaParams.add(itemId);
+            deltaParams.add(delta);
+        });
+        deltaCase.append(" end)");
+
+        String inClause = String.join(", ", Collections.nCopies(deltas.size(), "?"));
+        String sql = "update item set " +
+                "item_sell_status = case when stock_number - " + deltaCase + " <= 0 then 'SOLD_OUT' " +
+                "when " + deltaCase + " < 0 then 'SELL' else item_sell_status end, " +
+                "stock_number = stock_number - " + deltaCase + ", " +
+                "update_time = ? " +
+                "where item_id in (" + inClause + ")";
+
+        List<Object> params = new ArrayList<>();
+        params.addAll(deltaParams);
+        params.addAll(deltaParams);
+        params.addAll(deltaParams);
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        params.addAll(deltas.keySet());
+
+        jdbcTemplate.update(sql, params.toArray());
+    }
+
+    //서버 종료 시 남은 차감량을 반영하고 DB와 장부가 맞는지 확인
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        for (Map.Entry<Long, ItemStock> entry : stocks.entrySet()) {
+            ItemStock stock = entry.getValue();
+            int expected = stock.available() + stock.inFlight.get();
+            itemRepository.findStockNumberById(entry.getKey()).ifPresent(dbStock -> {
+                if (dbStock != expected) {
+                    log.warn("인기 상품 재고 불일치 (ID: {}, DB: {}, 장부: {})", entry.getKey(), dbStock, expected);
+                }
+            });
+        }
+    }
+
+    //트랜잭션이 끝난 후 실행 (트랜잭션 밖에서 호출되면 바로 커밋된 것으로 처리)
+    private void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.run(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.run(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private interface CompletionCallback {
+        void run(boolean committed);
+    }
+
+    //상품 하나의 재고 장부
+    private static final class ItemStock {
+
+        //재고를 나눠 담은 칸. 주문마다 임의의 칸부터 차감해서 같은 값을 두고 경쟁하지 않도록 함
+        final AtomicInteger[] stripes;
+
+        //차감했지만 아직 커밋되지 않은 수량
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        //커밋되었지만 아직 DB에 반영되지 않은 차감량 (취소가 더 많으면 음수)
+        final AtomicInteger pending = new AtomicInteger();
+
+        //마지막 반영 이후 품절/판매중으로 바뀐 적이 있는지 (반영 후 발행하는 이벤트에 사용)
+        final AtomicBoolean sellStatusChanged = new AtomicBoolean();
+
+        ItemStock(int stripeCount, int stockNumber) {
+            stripes = new AtomicInteger[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                // 나머지는 앞 칸부터 하나씩
+                stripes[i] = new AtomicInteger(stockNumber / stripeCount + (i < stockNumber % stripeCount ? 1 : 0));
+            }
+        }
+
+        int available() {
+            int sum = 0;
+            for (AtomicInteger stripe : stripes) {
+                sum += stripe.get();
+            }
+            return sum;
+        }
+
+        //임의의 칸부터 돌면서 count만큼 차감. 모자라면 가져온 만큼 돌려놓고 false
+        boolean take(int count) {
+            int start = ThreadLocalRandom.current().nextInt(stripes.length);
+            int[] taken = new int[stripes.length];
+            int remaining = count;
+
+            for (int i = 0; i < stripes.length && remaining > 0; i++) {
+                int index = (start + i) % stripes.length;
+                AtomicInteger stripe = stripes[index];
+                while (remaining > 0) {
+                    int current = stripe.get();
+                    if (current == 0) {
+                        break;
+                    }
+                    int amount = Math.min(current, remaining);
+                    if (stripe.compareAndSet(current, current - amount)) {
+                        taken[index] += amount;
+                        remaining -= amount;
+                    }
+                }
+            }
+
+            if (remaining > 0) {
+                for (int i = 0; i < stripes.length; i++) {
+                    if (taken[i] > 0) {
+                        stripes[i].addAndGet(taken[i]);
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+
+        void give(int count) {
+            stripes[ThreadLocalRandom.current().nextInt(stripes.length)].addAndGet(count);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.jpa.market.service;
+
+import com.jpa.market.config.exception.OutOfStockException;
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.event.ItemChangedEvent;
+import com.jpa.market.repository.ItemRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+//상품 재고 차감/복구
+//Item 엔티티를 조회해서 값을 바꾸는 방식(removeStock)은 동시에 주문이 들어오면
+//둘 다 같은 재고를 읽고 각자 빼서 저장하므로 재고보다 많이 팔릴 수 있음
+//여기서는 "재고 >= 주문수량" 조건을 건 update 한 문장으로 차감하므로 DB가 행 단위로 순서를 보장함
+//  -> 비관적 락(select ... for update)처럼 조회부터 막지 않아서 인기 상품도 처리량이 유지됨
+//
+//주의 : 이 클래스로 재고를 바꾼 뒤에는 영속성 컨텍스트의 Item 엔티티 재고 값이 옛날 값이므로
+//       같은 트랜잭션에서 item.removeStock()/addStock()을 같이 쓰면 안 됨
+//
+//인기 상품(inventory.hot-items)으로 등록된 상품은 DB 대신 HotItemLedger에서 차감/복구함
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class InventoryService {
+
+    //차감/복구 update가 두 문장 사이의 재고 변경으로 모두 빗나갔을 때 다시 시도하는 횟수
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ItemRepository itemRepository;
+    //재고 변경을 상품 목록 캐시 등에 알리기 위해 사용 (커밋 후에 처리됨)
+    private final ApplicationEventPublisher eventPublisher;
+    //인기 상품 재고 장부 (메모리)
+    private final HotItemLedger hotItemLedger;
+
+    //재고 차감. 재고가 부족하면 OutOfStockException
+    public void decrease(Long itemId, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("주문 수량은 1 이상이어야 합니다.");
+        }
+
+        if (hotItemLedger.isHot(itemId)) {
+            // item 테이블은 장부 반영(flush) 때 바뀌므로 캐시 무효화 이벤트는 그때 한 번 더 발행됨
+            boolean soldOut = hotItemLedger.reserve(itemId, count);
+            eventPublisher.publishEvent(ItemChangedEvent.stockChanged(itemId, -count, soldOut));
+            return;
+        }
+
+        //보통은 첫 번째 update 한 문장으로 끝나고, 마지막 재고를 사는 주문만 품절 update를 한 번 더 실행
+        //어느 문장이 반영되었는지로 품절 여부를 알 수 있으므로 차감 후 재고를 다시 조회하지 않음
+        LocalDateTime now = LocalDateTime.now();
+        for (int attempt = 1; ; attempt++) {
+            if (itemRepository.decreaseStock(itemId, count, now) == 1) {
+                eventPublisher.publishEvent(ItemChangedEvent.stockChanged(itemId, -count, false));
+                return;
+            }
+            if (itemRepository.decreaseLastStock(itemId, count, ItemSellStatus.SOLD_OUT, now) == 1) {
+                eventPublisher.publishEvent(ItemChangedEvent.stockChanged(itemId, -count, true));
+                return;
+            }
+
+            // 재고가 부족하거나 상품이 없는 경우 (두 문장 사이에 재고가 바뀌었으면 다시 시도)
+            // 조회는 트랜잭션 시작 시점 기준이라 update와 다를 수 있으므로 다시 시도 횟수를 제한함
+            int stockNumber = itemRepository.findStockNumberById(itemId)
+                    .orElseThrow(() -> new EntityNotFoundException("상품이 존재하지 않습니다. ID: " + itemId));
+            if (stockNumber < count || attempt >= MAX_ATTEMPTS) {
+                throw new OutOfStockException("상품의 재고가 부족합니다. (현재 재고 수량: " + stockNumber + ")");
+            }
+        }
+    }
+
+    //여러 상품의 재고를 한 번에 차감 (장바구니 주문). 하나라도 재고가 부족하면 OutOfStockException
+    //일반 상품은 재고 잠금 조회 한 번 + update 한 문장으로 처리 (상품 수와 상관없이 고정)
+    //countByItemId는 상품 id 오름차순이어야 함 (행 락을 항상 같은 순서로 잡아서 교착 상태 방지)
+    //
+    //주문 쪽에서 상품을 먼저 조회했으므로 일반 조회는 그 시점의 스냅샷을 돌려줌
+    //  -> 다른 주문이 그 사이 재고를 다 팔았어도 옛날 재고가 보여서 부족한 상품을 놓칠 수 있음
+    //그래서 update 전에 잠금 조회(for update)로 최신 재고를 읽고 부족한 상품을 먼저 찾음
+    //update가 어차피 같은 행 락을 커밋까지 잡으므로 락을 한 문장 일찍 잡는 것 외에 달라지는 것은 없음
+    public void decreaseAll(SortedMap<Long, Integer> countByItemId) {
+        Map<Long, Integer> normalItems = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : countByItemId.entrySet()) {
+            if (entry.getValue() < 1) {
+                throw new IllegalArgumentException("주문 수량은 1 이상이어야 합니다.");
+            }
+            if (hotItemLedger.isHot(entry.getKey())) {
+                decrease(entry.getKey(), entry.getValue());
+            } else {
+                normalItems.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (normalItems.isEmpty()) {
+            return;
+        }
+
+        // 차감 전 최신 재고 (커밋될 때까지 다른 트랜잭션이 바꿀 수 없음)
+        Map<Long, Integer> stockNumbers = itemRepository.lockStockNumbers(normalItems.keySet());
+        for (Map.Entry<Long, Integer> entry : normalItems.entrySet()) {
+            Integer stockNumber = stockNumbers.get(entry.getKey());
+            if (stockNumber == null) {
+                throw new EntityNotFoundException("상품이 존재하지 않습니다. ID: " + entry.getKey());
+            }
+            if (stockNumber < entry.getValue()) {
+                throw new OutOfStockException("상품의 재고가 부족합니다. (상품 ID: " + entry.getKey()
+                        + ", 현재 재고 수량: " + stockNumber + ")");
+            }
+        }
+
+        long updated = itemRepository.decreaseStocks(normalItems, LocalDateTime.now());
+        if (updated < normalItems.size()) {
+            // 행 락을 잡고 있으므로 일어나지 않아야 하지만, 하나라도 빠지면 주문이 커밋되지 않도록 실패시킴
+            throw new OutOfStockException("상품의 재고가 부족합니다. 잠시 후 다시 시도해주세요.");
+        }
+
+        for (Map.Entry<Long, Integer> entry : normalItems.entrySet()) {
+            boolean soldOut = stockNumbers.get(entry.getKey()).equals(entry.getValue());
+            eventPublisher.publishEvent(ItemChangedEvent.stockChanged(entry.getKey(), -entry.getValue(), soldOut));
+        }
+    }
+
+    //재고 복구 (주문 취소)
+    public void increase(Long itemId, int count) {
+        if (hotItemLedger.isHot(itemId)) {
+            boolean backOnSale = hotItemLedger.release(itemId, count);
+            eventPublisher.publishEvent(ItemChangedEvent.stockChanged(itemId, count, backOnSale));
+            return;
+        }
+
+        //재고가 남아있던 상품은 update 한 문장, 품절이던 상품만 판매중으로 바꾸는 update를 한 번 더 실행
+        LocalDateTime now = LocalDateTime.now();
+        for (int attempt = 1; ; attempt++) {
+            if (itemRepository.increaseStock(itemId, count, now) == 1) {
+                eventPublisher.publishEvent(ItemChangedEvent.stockChanged(itemId, count, false));
+                return;
+            }
+            if (itemRepository.increaseSoldOutStock(itemId, count, ItemSellStatus.SELL, now) == 1) {
+                eventPublisher.publishEvent(ItemChangedEvent.stockChanged(itemId, count, true));
+                return;
+            }
+
+            // 상품이 없는 경우 (두 문장 사이에 재고가 바뀌었으면 다시 시도)
+            if (itemRepository.findStockNumberById(itemId).isEmpty()) {
+                throw new EntityNotFoundException("상품이 존재하지 않습니다. ID: " + itemId);
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                throw new IllegalStateException("재고 복구 중 재고가 계속 바뀌었습니다. 잠시 후 다시 시도해주세요.");
+            }
+        }
+    }
+
+    //관리자가 상품 수정으로 재고 수량을 직접 바꾼 경우 (delta = 새 재고 - 수정 전 재고)
+    //일반 상품은 DB 값이 곧 재고이므로 할 일이 없고, 인기 상품은 장부에도 바뀐 만큼 반영
+    public void stockOverwritten(Long itemId, int delta) {
+        if (delta != 0 && hotItemLedger.isHot(itemId)) {
+            hotItemLedger.adjust(itemId, delta);
+        }
+    }
+
+}
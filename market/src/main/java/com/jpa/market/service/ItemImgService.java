@@ -39,8 +39,10 @@ public class ItemImgService {
         if (!StringUtils.isEmpty(oriImgName)) {
             // FileService가 내부적으로 bucket, region 정보를 사용해서
             // https://... 형태의 완벽한 URL을 만들어서 줍니다.
+            // getBytes()로 파일 전체를 메모리에 올리지 않고 업로드된 임시 파일에서 바로 읽어서 전송
+            String contentType = itemImgFile.getContentType() != null ? itemImgFile.getContentType() : "image/jpeg";
             imgUrl = fileService.uploadFile("items", oriImgName,
-                    itemImgFile.getBytes());
+                    itemImgFile, itemImgFile.getSize(), contentType);
             // 2. 받아온 전체 URL에서 S3 Key(items/uuid.jpg) 부분만 추출합니다.
             // .com/ 이후의 문자열을 잘라내어 imgName에 저장합니다 (삭제 시 활용).
             if (imgUrl.contains(".com/")) {
@@ -53,6 +55,11 @@ public class ItemImgService {
         itemImg.updateItemImg(imgName, oriImgName, imgUrl, itemImg.getRepImgYn());
 
         itemImgRepository.save(itemImg);
+
+        // 4. 대표 이미지면 상품에도 같이 저장 (목록 조회 시 item_img 조인을 없애기 위해)
+        if ("Y".equals(itemImg.getRepImgYn())) {
+            itemImg.getItem().updateRepImg(itemImg.getImgName(), itemImg.getImgUrl());
+        }
     }
 
 
@@ -74,6 +81,9 @@ public class ItemImgService {
             //db에서 삭제
             itemImgRepository.delete(itemImg);
         }
+        //이미지가 모두 삭제되었으므로 상품의 대표 이미지도 비움
+        item.updateRepImg(null, null);
+
         itemImgRepository.flush();
     }
 }
@@ -0,0 +1,136 @@
+package com.jpa.market.service;
+
+import com.jpa.market.entity.Item;
+import com.jpa.market.entity.QItem;
+import com.jpa.market.entity.QItemImg;
+import com.jpa.market.event.ItemChangedEvent;
+import com.jpa.market.repository.DataMigrationRepository;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//상품 테이블에 대표 이미지(repImgName, repImgUrl) 컬럼이 추가되기 전에 등록된 상품들을 채워주는 작업
+//서버가 뜬 후 완료 기록(data_migration)이 없을 때만 실행되고, 이미 채워진 상품은 건너뜀
+//상품이 많을 수 있으므로 id 순으로 나눠서 조각마다 별도 트랜잭션으로 처리 (긴 트랜잭션/락 방지)
+//채운 상품은 상품 수정 이벤트를 발행해서 대표 이미지 없이 캐시된 목록 페이지가 버려지도록 함
+@Slf4j
+@Component
+public class ItemRepImgBackfillJob {
+
+    private static final int CHUNK_SIZE = 500;
+
+    //대표 이미지 채우기 완료 기록 이름
+    private static final String MIGRATION = "item_rep_img_backfill";
+
+    private final JPAQueryFactory queryFactory;
+
+    private final DataMigrationRepository dataMigrationRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemRepImgBackfillJob(EntityManager em,
+                                 DataMigrationRepository dataMigrationRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.dataMigrationRepository = dataMigrationRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (dataMigrationRepository.existsById(MIGRATION)) {
+            return;
+        }
+
+        long lastId = 0L;
+        long updated = 0L;
+
+        while (true) {
+            long fromId = lastId;
+            ChunkResult result = transactionTemplate.execute(status -> backfillChunk(fromId));
+
+            if (result == null) {
+                break;
+            }
+            updated += result.updated;
+            lastId = result.lastId;
+        }
+
+        // 중간에 실패하면 기록을 남기지 않으므로 다음 서버 시작 때 아직 비어있는 상품부터 다시 채움
+        transactionTemplate.executeWithoutResult(status ->
+                dataMigrationRepository.markApplied(MIGRATION, LocalDateTime.now()));
+        log.info("상품 대표 이미지 채우기 완료 (변경된 상품 수: {})", updated);
+    }
+
+    //lastId 다음부터 대표 이미지가 비어있는 상품 CHUNK_SIZE개를 처리. 더 이상 상품이 없으면 null
+    private ChunkResult backfillChunk(long lastId) {
+        QItem item = QItem.item;
+        QItemImg itemImg = QItemImg.itemImg;
+
+        List<Long> itemIds = queryFactory
+                .select(item.id)
+                .from(item)
+                .where(item.id.gt(lastId), item.repImgUrl.isNull())
+                .orderBy(item.id.asc())
+                .limit(CHUNK_SIZE)
+                .fetch();
+
+        if (itemIds.isEmpty()) {
+            return null;
+        }
+
+        // 이번 조각 중 대표 이미지가 아직 안 채워진 상품의 대표 이미지만 조회
+        List<Tuple> rows = queryFactory
+                .select(item.id, itemImg.imgName, itemImg.imgUrl)
+                .from(itemImg)
+                .join(itemImg.item, item)
+                .where(
+                        item.id.in(itemIds),
+                        item.repImgUrl.isNull(),
+                        itemImg.repImgYn.eq("Y")
+                )
+                .fetch();
+
+        List<Long> updatedIds = new ArrayList<>();
+        for (Tuple row : rows) {
+            // 그 사이 이미지가 새로 저장된 상품은 덮어쓰지 않도록 null인 경우만 변경
+            long updated = queryFactory
+                    .update(item)
+                    .set(item.repImgName, row.get(itemImg.imgName))
+                    .set(item.repImgUrl, row.get(itemImg.imgUrl))
+                    .where(item.id.eq(row.get(item.id)), item.repImgUrl.isNull())
+                    .execute();
+            if (updated > 0) {
+                updatedIds.add(row.get(item.id));
+            }
+        }
+
+        // update 쿼리는 이벤트를 발행하지 않으므로 직접 발행 (커밋 후 목록 캐시 등에서 처리됨)
+        if (!updatedIds.isEmpty()) {
+            List<Item> updatedItems = queryFactory.selectFrom(item).where(item.id.in(updatedIds)).fetch();
+            for (Item updatedItem : updatedItems) {
+                eventPublisher.publishEvent(ItemChangedEvent.updated(updatedItem));
+            }
+        }
+
+        return new ChunkResult(itemIds.get(itemIds.size() - 1), updatedIds.size());
+    }
+
+    private record ChunkResult(long lastId, long updated) {
+    }
+}
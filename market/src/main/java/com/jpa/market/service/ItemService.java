@@ -2,31 +2,53 @@ package com.jpa.market.service;
 
 
 import com.jpa.market.dto.ItemAdminListDto;
+import com.jpa.market.dto.ItemFacetDto;
 import com.jpa.market.dto.ItemFormDto;
 import com.jpa.market.dto.ItemSearchDto;
+import com.jpa.market.dto.ItemSuggestDto;
 import com.jpa.market.dto.MainItemDto;
 import com.jpa.market.entity.Item;
 import com.jpa.market.entity.ItemImg;
+import com.jpa.market.event.ItemChangedEvent;
 import com.jpa.market.mapper.ItemMapper;
 import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.ItemSuggestIndex;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class ItemService {
 
+    //상품 상세 여러 건 조회 시 최대 개수
+    private static final int MAX_DETAIL_BATCH_SIZE = 50;
+
     private final ItemRepository itemRepository;
     private final ItemImgService itemImgService;
     private final ItemMapper itemMapper; // 1. MapStruct 매퍼 주입
+    //상품 변경을 검색 인덱스 등에 알리기 위해 사용 (커밋 후에 처리됨)
+    private final ApplicationEventPublisher eventPublisher;
+    //메인 화면 상품 목록 캐시
+    private final MainItemPageCache mainItemPageCache;
+    //검색창 자동완성용 상품명 트리
+    private final ItemSuggestIndex itemSuggestIndex;
+    //상품 목록 버전 (목록 ETag용)
+    private final CatalogVersion catalogVersion;
+    //재고 수량 변경을 인기 상품 재고 장부에 알리기 위해 사용
+    private final InventoryService inventoryService;
 
     public Long saveItem(ItemFormDto itemFormDto, List<MultipartFile> itemImgFileList) throws Exception{
 
@@ -56,6 +78,8 @@ public class ItemService {
             }
         }
 
+        eventPublisher.publishEvent(ItemChangedEvent.created(item));
+
         return item.getId();
     }
 
@@ -70,6 +94,65 @@ public class ItemService {
         return itemMapper.entityToDto(item);
     }
 
+    //상품 상세 응답의 ETag (상품 id + 마지막 수정 시각)
+    //상품이 수정되거나 주문으로 재고가 바뀌면 updateTime이 바뀌므로 ETag도 바뀜
+    //상품이 없으면 null (이후 상세 조회에서 404 처리)
+    @Transactional(readOnly = true)
+    public String getItemDetailETag(Long itemId) {
+        return itemRepository.findLastModifiedById(itemId)
+                .map(lastModified -> "\"item-" + itemId + "-" + toMicros(lastModified) + "\"")
+                .orElse(null);
+    }
+
+    //메인 목록 응답의 ETag (목록 버전 + 검색 조건)
+    //검색 조건에는 등록일 조건의 기준 시간(1분 단위)도 포함되어 있어서 시간이 지나 결과가 바뀌는 경우도 구분됨
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getMainPageETag(ItemSearchDto itemSearchDto) {
+        return "\"main-" + catalogVersion.current() + "-"
+                + Integer.toHexString(itemSearchDto.toFilterKey().hashCode()) + "\"";
+    }
+
+    private long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    //여러 상품 상세를 한 번에 조회 (비교하기, 찜 목록 화면용)
+    //상품과 이미지를 fetch join 쿼리 한 번으로 가져오고, 요청한 id 순서대로 반환
+    @Transactional(readOnly = true)
+    public List<ItemFormDto> getItemDetails(List<Long> itemIds) {
+        if (itemIds == null || itemIds.isEmpty()) {
+            throw new IllegalArgumentException("조회할 상품 ID를 입력해주세요.");
+        }
+
+        // 중복 id 제거 (순서 유지)
+        Set<Long> ids = new LinkedHashSet<>(itemIds);
+        if (ids.size() > MAX_DETAIL_BATCH_SIZE) {
+            throw new IllegalArgumentException("한 번에 조회할 수 있는 상품은 최대 " + MAX_DETAIL_BATCH_SIZE + "개입니다.");
+        }
+
+        Map<Long, Item> itemMap = new HashMap<>();
+        for (Item item : itemRepository.findAllWithImgsByIdIn(ids)) {
+            itemMap.put(item.getId(), item);
+        }
+
+        List<Item> items = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = itemMap.get(id);
+            if (item == null) {
+                missingIds.add(id);
+            } else {
+                items.add(item);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException("해당 상품을 찾을 수 없습니다. (ID: " + missingIds + ")");
+        }
+
+        return itemMapper.entitiesToDtos(items);
+    }
+
     /**
      * 상품 및 상품 이미지 수정 로직
      * @param itemFormDto : 리액트에서 전달된 수정된 상품 정보와 기존 이미지 ID 리스트
@@ -85,7 +168,9 @@ public class ItemService {
         // 1. 상품 기본 정보 수정
         Item item = itemRepository.findById(itemFormDto.getId())
                 .orElseThrow(() -> new EntityNotFoundException("수정하려는 상품을 찾을 수 없습니다. (ID: " + itemFormDto.getId() + ")"));
+        int oldStockNumber = item.getStockNumber();
         item.updateItem(itemFormDto);
+        inventoryService.stockOverwritten(item.getId(), item.getStockNumber() - oldStockNumber);
 
         // 2. [핵심] 기존 이미지 싹 삭제 (물리 파일 + DB 데이터)
         itemImgService.deleteItemImg(item);
@@ -105,6 +190,9 @@ public class ItemService {
                 itemImgService.saveItemImg(itemImg, file);
             }
         }
+
+        eventPublisher.publishEvent(ItemChangedEvent.updated(item));
+
         return item.getId();
     }
 
@@ -115,10 +203,53 @@ public class ItemService {
         return itemRepository.getAdminItemPage(itemSearchDto, pageable);
     }
 
+    //approximateCount : 전체 개수를 세지 않고 다음 페이지 여부만 확인 (무한 스크롤/더보기 화면용)
     @Transactional(readOnly = true)
+    public Page<ItemAdminListDto> getAdminItemPage(ItemSearchDto itemSearchDto, Pageable pageable, boolean approximateCount) {
+        return itemRepository.getAdminItemPage(itemSearchDto, pageable, approximateCount);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable) {
-        // 리포지토리의 Querydsl custom 메서드 호출
-        return itemRepository.getMainItemPage(itemSearchDto, pageable);
+        return getMainItemPage(itemSearchDto, pageable, false);
+    }
+
+    //캐시에서 꺼낼 때는 트랜잭션(DB 커넥션)이 필요 없으므로 시작하지 않음
+    //캐시에 없을 때만 리포지토리 메서드가 자기 읽기 전용 트랜잭션 안에서 조회함 (ItemRepositoryCustom.getMainItemPage)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Page<MainItemDto> getMainItemPage(ItemSearchDto itemSearchDto, Pageable pageable, boolean approximateCount) {
+        // 캐시에 없을 때만 리포지토리의 Querydsl custom 메서드 호출
+        return mainItemPageCache.getOrLoad(itemSearchDto, pageable, approximateCount,
+                () -> itemRepository.getMainItemPage(itemSearchDto, pageable, approximateCount));
+    }
+
+    //무한 스크롤용 커서 조회 (afterId가 null이면 첫 페이지)
+    @Transactional(readOnly = true)
+    public Slice<ItemAdminListDto> getAdminItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size) {
+        return itemRepository.getAdminItemSlice(itemSearchDto, afterId, size);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<MainItemDto> getMainItemSlice(ItemSearchDto itemSearchDto, Long afterId, int size) {
+        return itemRepository.getMainItemSlice(itemSearchDto, afterId, size);
+    }
+
+    //검색창 자동완성 (메모리 트리에서만 조회하므로 트랜잭션을 시작하지 않음)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ItemSuggestDto> getSuggestions(String prefix, int limit) {
+        int size = Math.max(1, Math.min(limit, ItemSuggestIndex.MAX_SUGGESTIONS));
+        return itemSuggestIndex.suggest(prefix, size);
+    }
+
+    //검색 화면 사이드바용 조건별 상품 개수
+    @Transactional(readOnly = true)
+    public ItemFacetDto getAdminItemFacets(ItemSearchDto itemSearchDto) {
+        return itemRepository.getAdminItemFacets(itemSearchDto);
+    }
+
+    @Transactional(readOnly = true)
+    public ItemFacetDto getMainItemFacets(ItemSearchDto itemSearchDto) {
+        return itemRepository.getMainItemFacets(itemSearchDto);
     }
 }
 
@@ -0,0 +1,212 @@
+package com.jpa.market.service;
+
+import com.jpa.market.config.jpa.EntityIdGenerator;
+import com.jpa.market.dto.CartDetailDto;
+import com.jpa.market.entity.Cart;
+import com.jpa.market.entity.CartItem;
+import com.jpa.market.entity.Item;
+import com.jpa.market.entity.Member;
+import com.jpa.market.repository.CartItemRepository;
+import com.jpa.market.repository.CartRepository;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//장바구니를 요청마다 cart/cart_item 테이블에 바로 반영하는 저장소 (기본값)
+//CartService의 트랜잭션 안에서 호출됨
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    //장바구니 상품 담기 : 한 장바구니에 같은 상품은 한 줄만 있으므로(uk_cart_item_cart_item) 조회 없이 한 문장으로 처리
+    //  - 없으면 새 id로 insert, 있으면 수량만 증가 (동시에 같은 상품을 담아도 줄이 늘어나지 않고 수량이 모두 더해짐)
+    //  - 담을 때 가격(added_price)은 미리 잠금 없이 조회한 값. 다시 담으면 그때 가격으로 바뀜
+    //    (insert ... select from item으로 읽으면 item 행에 공유 락이 걸려서 재고 차감 update와 부딪힘)
+    //  - 어느 쪽이든 last_insert_id(...)에 실제 장바구니 상품 id를 남겨두고 같은 커넥션에서 꺼내서 반환
+    private static final String UPSERT_CART_ITEM_SQL = "insert into cart_item " +
+            "(cart_item_id, cart_id, item_id, count, added_price, reg_time, update_time, created_by, modified_by) " +
+            "values (last_insert_id(?), ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "on duplicate key update cart_item_id = last_insert_id(cart_item_id), count = count + values(count), " +
+            "added_price = values(added_price), update_time = values(update_time), modified_by = values(modified_by)";
+
+    private final MemberRepository memberRepository;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityIdGenerator idGenerator;
+
+    @Override
+    public Long addItem(String loginId, Long itemId, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("장바구니 수량은 1 이상이어야 합니다.");
+        }
+
+        // 1. 담을 때 가격 조회 (상품 존재 확인 겸, 잠금 없는 조회)
+        int price = itemRepository.findPriceById(itemId)
+                .orElseThrow(() -> new EntityNotFoundException("상품을 찾을 수 없습니다."));
+
+        // 2. 장바구니 id 조회 (없으면 생성)
+        Long cartId = findOrCreateCartId(loginId);
+
+        // 3. 담기 (insert 또는 수량 증가) 후 장바구니 상품 id 반환
+        jdbcTemplate.update(UPSERT_CART_ITEM_SQL, upsertParams(cartId, itemId, count, price, loginId));
+        return jdbcTemplate.queryForObject("select last_insert_id()", Long.class);
+    }
+
+    //여러 상품 담기 (비회원 장바구니 합치기) : 같은 문장을 JDBC 배치로 묶어서 한 번에 전송
+    //가격은 한 번에 조회하고, 없는 상품은 건너뜀
+    @Override
+    public void addItems(String loginId, Map<Long, Integer> counts) {
+        Map<Long, Integer> prices = itemRepository.findAllById(counts.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, Item::getPrice));
+        if (prices.isEmpty()) {
+            return;
+        }
+
+        Long cartId = findOrCreateCartId(loginId);
+
+        List<Object[]> params = new ArrayList<>();
+        counts.forEach((itemId, count) -> {
+            if (prices.containsKey(itemId)) {
+                params.add(upsertParams(cartId, itemId, count, prices.get(itemId), loginId));
+            }
+        });
+        jdbcTemplate.batchUpdate(UPSERT_CART_ITEM_SQL, params);
+    }
+
+    @Override
+    public List<CartDetailDto> getCartDetails(String loginId) {
+
+        // 1. 현재 로그인한 회원 조회
+        Member member = memberRepository.findByLoginId(loginId)
+                .orElseThrow(() -> new EntityNotFoundException("사용자를 찾을 수 없습니다."));
+
+        // 2. 해당 회원의 장바구니 조회
+        Cart cart = cartRepository.findByMemberId(member.getId());
+
+        // 3. 장바구니가 비어있으면 빈 리스트 반환
+        if (cart == null) {
+            return new ArrayList<>();
+        }
+
+        // 4. 장바구니에 담긴 상품 목록 조회
+        return cartItemRepository.findCartDetailDtoList(cart.getId());
+    }
+
+    @Override
+    public void updateCount(Long cartItemId, int count, String loginId) {
+        // 1. 상품 존재 확인
+        CartItem cartItem = cartItemRepository.findById(cartItemId)
+                .orElseThrow(() -> new EntityNotFoundException("장바구니 상품을 찾을 수 없습니다."));
+
+        // 2. 보안 체크: 주문 취소 때와 똑같이 loginId 비교
+        if (!cartItem.getCart().getMember().getLoginId().equals(loginId)) {
+            throw new AccessDeniedException("주문 수정 권한이 없습니다.");
+        }
+
+        // 3. 업데이트
+        cartItem.updateCount(count);
+    }
+
+    @Override
+    public void removeItem(Long cartItemId, String loginId) {
+        // 1. 삭제할 아이템 조회
+        CartItem cartItem = cartItemRepository.findById(cartItemId)
+                .orElseThrow(() -> new EntityNotFoundException("삭제하려는 상품이 없습니다."));
+
+        // 2. 보안 체크: 로그인한 사용자와 장바구니 주인이 같은지 확인
+        if (!cartItem.getCart().getMember().getLoginId().equals(loginId)) {
+            throw new AccessDeniedException("삭제 권한이 없습니다.");
+        }
+
+        // 3. 삭제 실행
+        cartItemRepository.delete(cartItem);
+    }
+
+    //조회 한 번으로 모두 내 장바구니 상품인지 확인하고, 수량은 update 한 문장, 삭제는 delete 한 문장으로 처리
+    @Override
+    public void updateItems(Map<Long, Integer> counts, Set<Long> deleteIds, String loginId) {
+        Set<Long> cartItemIds = new HashSet<>(counts.keySet());
+        cartItemIds.addAll(deleteIds);
+        if (cartItemIds.isEmpty()) {
+            return;
+        }
+
+        // 1. 보안 체크: 선택한 개수와 내 장바구니에서 찾은 개수가 다르면 없는 상품이거나 남의 상품이 섞여있는 것
+        if (cartItemRepository.findCartOrderLines(cartItemIds, loginId).size() != cartItemIds.size()) {
+            if (cartItemRepository.countByIdIn(cartItemIds) != cartItemIds.size()) {
+                throw new EntityNotFoundException("장바구니 상품을 찾을 수 없습니다.");
+            }
+            throw new AccessDeniedException("장바구니 수정 권한이 없습니다.");
+        }
+
+        // 2. 수량 변경
+        if (!counts.isEmpty()) {
+            updateCounts(counts, loginId);
+        }
+
+        // 3. 삭제
+        if (!deleteIds.isEmpty()) {
+            cartItemRepository.deleteAllByIdInBatch(deleteIds);
+        }
+    }
+
+    //update cart_item set count = case cart_item_id when ? then ? ... end, ... where cart_item_id in (...)
+    private void updateCounts(Map<Long, Integer> counts, String loginId) {
+        StringBuilder countCase = new StringBuilder("case cart_item_id");
+        List<Object> params = new ArrayList<>();
+        counts.forEach((cartItemId, count) -> {
+            countCase.append(" when ? then ?");
+            params.add(cartItemId);
+            params.add(count);
+        });
+        countCase.append(" end");
+
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        params.add(loginId);
+        params.addAll(counts.keySet());
+
+        String inClause = String.join(", ", Collections.nCopies(counts.size(), "?"));
+        jdbcTemplate.update("update cart_item set count = " + countCase + ", update_time = ?, modified_by = ? " +
+                "where cart_item_id in (" + inClause + ")", params.toArray());
+    }
+
+    //회원의 장바구니 id. 장바구니가 없으면 생성 (동시에 만들어도 member_id 유니크 제약 때문에 하나만 생김)
+    private Long findOrCreateCartId(String loginId) {
+        Long memberId = memberRepository.findByLoginId(loginId)
+                .orElseThrow(() -> new EntityNotFoundException("사용자를 찾을 수 없습니다."))
+                .getId();
+
+        return cartRepository.findIdByMemberId(memberId).orElseGet(() -> {
+            cartRepository.insertIfAbsent(idGenerator.nextId(Cart.class), memberId, LocalDateTime.now(), loginId);
+            return cartRepository.lastInsertId();
+        });
+    }
+
+    private Object[] upsertParams(Long cartId, Long itemId, int count, int price, String loginId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return new Object[]{idGenerator.nextId(CartItem.class), cartId, itemId, count, price, now, now, loginId, loginId};
+    }
+
+    //바로 반영하므로 할 일 없음
+    @Override
+    public void flush(String loginId) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.jpa.market.service;
+
+import com.jpa.market.dto.ItemSearchDto;
+import com.jpa.market.dto.MainItemDto;
+import com.jpa.market.event.ItemChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//메인 화면 상품 목록(Page<MainItemDto>) 캐시
+//  - 페이지 번호 + 페이지 크기 + 검색 조건을 키로 사용
+//  - 최대 개수를 넘으면 가장 오래 안 쓴 것부터 버림(LRU)
+//  - 같은 키로 동시에 여러 요청이 와도 DB 조회는 한 번만 실행 (나머지는 그 결과를 기다림)
+//  - 상품이 바뀌면(커밋 후) 그 상품이 들어있는 페이지와 결과가 달라질 수 있는 조건의 페이지만 골라서 버림
+@Component
+public class MainItemPageCache {
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    //접근 순서로 정렬되는 LinkedHashMap -> 가장 오래 안 쓴 항목이 맨 앞
+    //LinkedHashMap은 스레드 안전하지 않으므로 사용할 때 항상 synchronized(cache)
+    private final LinkedHashMap<PageKey, CacheEntry> cache;
+
+    //현재 DB에서 조회 중인 키 (같은 키의 요청은 이 결과를 같이 기다림)
+    private final Map<PageKey, CompletableFuture<Page<MainItemDto>>> loading = new ConcurrentHashMap<>();
+
+    //무효화될 때마다 증가. 조회 도중 상품이 바뀌었으면 그 결과는 캐시하지 않음
+    private long generation = 0;
+
+    public MainItemPageCache(@Value("${catalog.page-cache.max-entries:200}") int maxEntries,
+                             @Value("${catalog.page-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, CacheEntry> eldest) {
+                return size() > MainItemPageCache.this.maxEntries;
+            }
+        };
+    }
+
+    public Page<MainItemDto> getOrLoad(ItemSearchDto itemSearchDto, Pageable pageable, boolean approximateCount,
+                                       Supplier<Page<MainItemDto>> loader) {
+        PageKey key = new PageKey(pageable.getPageNumber(), pageable.getPageSize(),
+                itemSearchDto.toFilterKey(), itemSearchDto.hasEditableFieldFilter(), approximateCount);
+
+        long startGeneration;
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                return entry.page;
+            }
+            startGeneration = generation;
+        }
+
+        // 이미 같은 키를 조회 중이면 그 결과를 기다림
+        CompletableFuture<Page<MainItemDto>> future = new CompletableFuture<>();
+        CompletableFuture<Page<MainItemDto>> running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                // 먼저 조회한 요청의 예외를 그대로 전달
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            Page<MainItemDto> page = loader.get();
+
+            Set<Long> itemIds = new HashSet<>();
+            for (MainItemDto dto : page.getContent()) {
+                itemIds.add(dto.getId());
+            }
+
+            synchronized (cache) {
+                if (startGeneration == generation) {
+                    cache.put(key, new CacheEntry(page, itemIds, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+            future.complete(page);
+            return page;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    //상품 변경 종류에 따라 필요한 페이지만 버림
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        synchronized (cache) {
+            generation++;
+
+            switch (event.getType()) {
+                // 새 상품은 id가 가장 크므로 맨 앞에 추가되어 모든 페이지가 한 칸씩 밀림
+                case CREATED -> cache.clear();
+                // 상품명/가격/판매상태가 바뀌면 검색어, 가격대, 판매상태 조건의 결과에 들어가거나 빠질 수 있으므로
+                // 그 상품이 들어있는 페이지와 함께 이런 조건이 있는 페이지도 모두 버림
+                case UPDATED -> cache.entrySet().removeIf(e ->
+                        e.getValue().itemIds.contains(event.getItemId()) || e.getKey().editableFieldFilter());
+                // 재고만 바뀐 경우는 그 상품이 들어있는 페이지만
+                // 판매상태까지 바뀌었으면 판매상태 조건으로 조회한 페이지에 들어가거나 빠질 수 있으므로 전부 버림
+                case STOCK -> {
+                    if (event.isSellStatusChanged()) {
+                        cache.clear();
+                    } else {
+                        cache.values().removeIf(entry -> entry.itemIds.contains(event.getItemId()));
+                    }
+                }
+            }
+        }
+    }
+
+    //editableFieldFilter : 판매상태, 가격대, 검색어 조건 중 하나라도 있는지 (ItemSearchDto.hasEditableFieldFilter)
+    private record PageKey(int page, int size, String filterKey, boolean editableFieldFilter, boolean approximateCount) {
+    }
+
+    private record CacheEntry(Page<MainItemDto> page, Set<Long> itemIds, long expiresAt) {
+    }
+}
@@ -0,0 +1,617 @@
+package com.jpa.market.service;
+
+import com.jpa.market.config.jpa.EntityIdGenerator;
+import com.jpa.market.dto.CartDetailDto;
+import com.jpa.market.dto.CartOrderLineDto;
+import com.jpa.market.entity.Cart;
+import com.jpa.market.entity.CartItem;
+import com.jpa.market.entity.Item;
+import com.jpa.market.entity.Member;
+import com.jpa.market.repository.CartItemRepository;
+import com.jpa.market.repository.CartRepository;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//회원별 장바구니를 메모리에 두는 저장소 (cart.store.type=memory)
+//  - 처음 접근할 때 DB에서 장바구니를 읽어오고, 이후 담기/수량 변경/삭제는 메모리만 바꿈
+//  - 바뀐 장바구니는 주기적으로(flush-interval-ms) 모아서 한 트랜잭션에서 insert/update/delete를 묶어서 반영
+//    (실패하면 장바구니마다 따로 반영하고, 담은 후 삭제된 상품은 장바구니에서 뺌)
+//  - 장바구니 주문 전에는 flush로 바로 반영하고 메모리에서 내림 (주문은 DB 기준으로 처리)
+//    (주기 반영이 진행 중이면 그 반영이 커밋될 때까지 기다린 후에 반영)
+//  - 새로 담은 상품의 id는 EntityIdGenerator로 미리 받아오므로 DB에 반영되기 전에도 id를 돌려줄 수 있음
+//  - 오랫동안(idle-minutes) 쓰지 않은 장바구니는 메모리에서 내림
+//
+//주의 : 서버가 비정상 종료되면 마지막 반영 이후의 장바구니 변경 내용은 사라짐 (정상 종료 시에는 모두 반영)
+//주의 : 서버를 여러 대 띄우면 서버마다 따로 들고 있으므로 한 서버에서만 사용
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "memory")
+public class MemoryCartStore implements CartStore {
+
+    private final Duration idleTimeout;
+
+    private final MemberRepository memberRepository;
+
+    private final CartRepository cartRepository;
+
+    private final CartItemRepository cartItemRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityIdGenerator idGenerator;
+
+    //주문 트랜잭션과 상관없이 반영 결과가 바로 커밋되도록 항상 새 트랜잭션
+    private final TransactionTemplate transactionTemplate;
+
+    //로그인 id -> 장바구니
+    private final Map<String, CartEntry> carts = new ConcurrentHashMap<>();
+
+    public MemoryCartStore(@Value("${cart.store.idle-minutes:30}") long idleMinutes,
+                           MemberRepository memberRepository,
+                           CartRepository cartRepository,
+                           CartItemRepository cartItemRepository,
+                           ItemRepository itemRepository,
+                           JdbcTemplate jdbcTemplate,
+                           EntityIdGenerator idGenerator,
+                           PlatformTransactionManager transactionManager) {
+        this.idleTimeout = Duration.ofMinutes(idleMinutes);
+        this.memberRepository = memberRepository;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Long addItem(String loginId, Long itemId, int count) {
+        // 담을 때 가격 기록 (상품 존재 확인 겸)
+        int price = itemRepository.findPriceById(itemId)
+                .orElseThrow(() -> new EntityNotFoundException("상품을 찾을 수 없습니다."));
+
+        return withCart(loginId, cart -> add(cart, itemId, count, price));
+    }
+
+    @Override
+    public void addItems(String loginId, Map<Long, Integer> counts) {
+        Map<Long, Integer> prices = itemRepository.findAllById(counts.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, Item::getPrice));
+
+        withCart(loginId, cart -> {
+            counts.forEach((itemId, count) -> {
+                if (prices.containsKey(itemId)) {
+                    add(cart, itemId, count, prices.get(itemId));
+                }
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public List<CartDetailDto> getCartDetails(String loginId) {
+        // 최근에 담은 순으로 보여주기 위해 담은 순서를 뒤집음
+        List<CartOrderLineDto> lines = withCart(loginId, cart -> {
+            List<CartOrderLineDto> snapshot = new ArrayList<>();
+            cart.lines.forEach((cartItemId, line) ->
+                    snapshot.add(new CartOrderLineDto(cartItemId, line.itemId, line.count, line.addedPrice)));
+            Collections.reverse(snapshot);
+            return snapshot;
+        });
+
+        if (lines.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 상품명/가격/이미지는 바뀔 수 있으므로 메모리에 두지 않고 상품 id로 한 번에 조회
+        Map<Long, Item> items = itemRepository.findAllById(
+                        lines.stream().map(CartOrderLineDto::getItemId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<CartDetailDto> cartDetailDtoList = new ArrayList<>();
+        for (CartOrderLineDto line : lines) {
+            Item item = items.get(line.getItemId());
+            // 장바구니에 담은 후 삭제된 상품은 보여주지 않음
+            if (item == null) {
+                continue;
+            }
+            cartDetailDtoList.add(new CartDetailDto(line.getCartItemId(), item.getItemName(),
+                    item.getPrice(), line.getCount(), item.getRepImgUrl(),
+                    item.getStockNumber(), item.getItemSellStatus(), line.getAddedPrice()));
+        }
+        return cartDetailDtoList;
+    }
+
+    @Override
+    public void updateCount(Long cartItemId, int count, String loginId) {
+        boolean found = withCart(loginId, cart -> {
+            Line line = cart.lines.get(cartItemId);
+            if (line == null) {
+                return false;
+            }
+            line.count = count;
+            cart.markDirty(line);
+            return true;
+        });
+
+        if (!found) {
+            throw notInCart(cartItemId, "장바구니 상품을 찾을 수 없습니다.", "주문 수정 권한이 없습니다.");
+        }
+    }
+
+    @Override
+    public void removeItem(Long cartItemId, String loginId) {
+        boolean found = withCart(loginId, cart -> {
+            Line line = cart.lines.remove(cartItemId);
+            if (line == null) {
+                return false;
+            }
+            // DB에 아직 없는 상품이면 메모리에서만 지우면 됨
+            if (line.persisted) {
+                cart.deletedIds.add(cartItemId);
+                cart.dirty = true;
+            }
+            return true;
+        });
+
+        if (!found) {
+            throw notInCart(cartItemId, "삭제하려는 상품이 없습니다.", "삭제 권한이 없습니다.");
+        }
+    }
+
+    //모두 장바구니에 있는지 먼저 확인하고, 있을 때만 한꺼번에 바꿈
+    @Override
+    public void updateItems(Map<Long, Integer> counts, Set<Long> deleteIds, String loginId) {
+        Long missingId = withCart(loginId, cart -> {
+            for (Long cartItemId : counts.keySet()) {
+                if (!cart.lines.containsKey(cartItemId)) {
+                    return cartItemId;
+                }
+            }
+            for (Long cartItemId : deleteIds) {
+                if (!cart.lines.containsKey(cartItemId)) {
+                    return cartItemId;
+                }
+            }
+
+            counts.forEach((cartItemId, count) -> {
+                Line line = cart.lines.get(cartItemId);
+                line.count = count;
+                cart.markDirty(line);
+            });
+            for (Long cartItemId : deleteIds) {
+                if (cart.lines.remove(cartItemId).persisted) {
+                    cart.deletedIds.add(cartItemId);
+                    cart.dirty = true;
+                }
+            }
+            return null;
+        });
+
+        if (missingId != null) {
+            throw notInCart(missingId, "장바구니 상품을 찾을 수 없습니다.", "장바구니 수정 권한이 없습니다.");
+        }
+    }
+
+    //주문 전에 호출 : 바뀐 내용을 바로 반영하고 메모리에서 내림
+    //주문 트랜잭션이 끝난 후에도 한 번 더 내려서, 그 사이에 다시 읽어온 장바구니에 주문된 상품이 남아있지 않도록 함
+    @Override
+    public void flush(String loginId) {
+        CartEntry cart = carts.get(loginId);
+        if (cart != null) {
+            // 주기 반영이 이 장바구니를 반영 중이면 커밋될 때까지 기다림
+            // (기다리지 않으면 아직 커밋되지 않은 상품을 주문에서 찾지 못하거나 옛날 수량으로 주문됨)
+            cart.writeLock.lock();
+            try {
+                write(cart);
+                evict(loginId);
+            } finally {
+                cart.writeLock.unlock();
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(loginId);
+                }
+            });
+        }
+    }
+
+    //바뀐 장바구니들을 모아서 반영하고, 오래 쓰지 않은 장바구니는 메모리에서 내림
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:1000}")
+    public void flushAll() {
+        List<CartEntry> dirtyCarts = carts.values().stream().filter(cart -> cart.dirty).toList();
+        if (!dirtyCarts.isEmpty()) {
+            writeAll(dirtyCarts);
+        }
+
+        Instant idleBefore = Instant.now().minus(idleTimeout);
+        carts.forEach((loginId, cart) -> {
+            if (cart.lastAccess.isBefore(idleBefore)) {
+                evict(loginId);
+            }
+        });
+    }
+
+    //서버 종료 시 남은 변경 내용 반영
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    //장바구니에 상품 담기 (장바구니를 잠근 상태에서 호출)
+    //JpaCartStore와 같이 다시 담으면 담을 때 가격도 그때 가격으로 바꿈
+    private Long add(CartEntry cart, Long itemId, int count, int price) {
+        // 이미 담긴 상품이면 수량만 증가
+        for (Map.Entry<Long, Line> entry : cart.lines.entrySet()) {
+            Line line = entry.getValue();
+            if (line.itemId.equals(itemId)) {
+                line.count += count;
+                line.addedPrice = price;
+                cart.markDirty(line);
+                return entry.getKey();
+            }
+        }
+
+        Long cartItemId = idGenerator.nextId(CartItem.class);
+        Line line = new Line(itemId, count, price, false);
+        cart.lines.put(cartItemId, line);
+        cart.markDirty(line);
+        return cartItemId;
+    }
+
+    //장바구니를 잠그고 작업 실행. 메모리에 없으면 DB에서 읽어옴
+    //작업 도중 메모리에서 내려간 장바구니라면 다시 읽어와서 실행 (내려간 장바구니를 바꾸면 반영되지 않으므로)
+    private <T> T withCart(String loginId, Function<CartEntry, T> action) {
+        while (true) {
+            CartEntry cart = carts.computeIfAbsent(loginId, this::load);
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.lastAccess = Instant.now();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private CartEntry load(String loginId) {
+        Member member = memberRepository.findByLoginId(loginId)
+                .orElseThrow(() -> new EntityNotFoundException("사용자를 찾을 수 없습니다."));
+
+        CartEntry cart = new CartEntry(loginId, member.getId());
+        Cart savedCart = cartRepository.findByMemberId(member.getId());
+        if (savedCart != null) {
+            cart.cartId = savedCart.getId();
+            for (CartOrderLineDto line : cartItemRepository.findCartLines(savedCart.getId())) {
+                cart.lines.put(line.getCartItemId(), new Line(line.getItemId(), line.getCount(), line.getAddedPrice(), true));
+            }
+        }
+        return cart;
+    }
+
+    //바뀐 내용이 없는 장바구니만 메모리에서 내림
+    //반영 중인 장바구니는 실패하면 다시 바뀐 상태가 되므로 반영이 끝난 후에 확인
+    private void evict(String loginId) {
+        CartEntry cart = carts.get(loginId);
+        if (cart == null) {
+            return;
+        }
+        cart.writeLock.lock();
+        try {
+            synchronized (cart) {
+                if (!cart.dirty && !cart.evicted) {
+                    cart.evicted = true;
+                    carts.remove(loginId, cart);
+                }
+            }
+        } finally {
+            cart.writeLock.unlock();
+        }
+    }
+
+    //메모리 장바구니에 없는 상품 : 다른 회원의 장바구니 상품이면 권한 없음, 아니면 없는 상품
+    private RuntimeException notInCart(Long cartItemId, String notFoundMessage, String accessDeniedMessage) {
+        if (cartItemRepository.existsById(cartItemId)) {
+            return new AccessDeniedException(accessDeniedMessage);
+        }
+        return new EntityNotFoundException(notFoundMessage);
+    }
+
+    //장바구니들의 바뀐 내용을 한 트랜잭션에서 반영 (같은 종류의 문장끼리 묶어서 전송)
+    //반영할 내용을 꺼낼 때 장바구니를 깨끗한 상태로 바꾸고, 실패하면 다시 바뀐 상태로 돌려놓음
+    //묶어서 반영하다 실패하면 장바구니마다 따로 다시 반영 (문제가 있는 장바구니 하나 때문에 나머지까지 계속 실패하지 않도록)
+    //반영이 끝날 때까지 장바구니마다 writeLock을 잡고 있음. 주문 전 flush가 반영 중인 장바구니는 다음 주기로 넘김
+    private void writeAll(List<CartEntry> dirtyCarts) {
+        List<CartEntry> lockedCarts = new ArrayList<>();
+        try {
+            List<CartSnapshot> snapshots = new ArrayList<>();
+            for (CartEntry cart : dirtyCarts) {
+                if (!cart.writeLock.tryLock()) {
+                    continue;
+                }
+                lockedCarts.add(cart);
+                synchronized (cart) {
+                    if (cart.dirty) {
+                        snapshots.add(cart.takeSnapshot());
+                    }
+                }
+            }
+            if (snapshots.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeSnapshots(snapshots));
+                return;
+            } catch (RuntimeException e) {
+                for (CartSnapshot snapshot : snapshots) {
+                    synchronized (snapshot.cart) {
+                        snapshot.restore();
+                    }
+                }
+                log.warn("장바구니 묶음 반영 실패, 장바구니마다 다시 반영 (장바구니 수: {})", snapshots.size(), e);
+            }
+
+            for (CartSnapshot snapshot : snapshots) {
+                try {
+                    write(snapshot.cart);
+                } catch (RuntimeException e) {
+                    // 반영에 실패하면 다음 주기에 다시 시도
+                    log.error("장바구니 반영 실패 (다음 주기에 다시 시도, 로그인 ID: {})", snapshot.cart.loginId, e);
+                }
+            }
+        } finally {
+            lockedCarts.forEach(cart -> cart.writeLock.unlock());
+        }
+    }
+
+    //장바구니 하나의 바뀐 내용을 별도 트랜잭션에서 반영
+    //담은 후에 삭제된 상품이 있으면(외래키 오류) 그 상품만 장바구니에서 빼고 다시 반영 (매번 같은 이유로 실패하지 않도록)
+    //그 외의 이유로 실패하면 바뀐 상태로 돌려놓고 예외를 그대로 던짐
+    private void write(CartEntry cart) {
+        cart.writeLock.lock();
+        try {
+            while (true) {
+                CartSnapshot snapshot;
+                synchronized (cart) {
+                    if (!cart.dirty) {
+                        return;
+                    }
+                    snapshot = cart.takeSnapshot();
+                }
+
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeSnapshots(List.of(snapshot)));
+                    return;
+                } catch (RuntimeException e) {
+                    synchronized (cart) {
+                        snapshot.restore();
+                    }
+
+                    Set<Long> deletedItemIds = findDeletedItemIds(snapshot);
+                    if (deletedItemIds.isEmpty()) {
+                        throw e;
+                    }
+                    synchronized (cart) {
+                        cart.removeItems(deletedItemIds);
+                    }
+                    log.warn("담은 후 삭제된 상품을 장바구니에서 뺌 (로그인 ID: {}, 상품 ID: {})", cart.loginId, deletedItemIds);
+                }
+            }
+        } finally {
+            cart.writeLock.unlock();
+        }
+    }
+
+    //새로 담은 상품 중 상품 테이블에 없는 상품 id
+    private Set<Long> findDeletedItemIds(CartSnapshot snapshot) {
+        Set<Long> itemIds = new HashSet<>();
+        snapshot.lines.values().forEach(line -> {
+            if (!line.persisted) {
+                itemIds.add(line.itemId);
+            }
+        });
+        if (itemIds.isEmpty()) {
+            return itemIds;
+        }
+        itemRepository.findExistingIds(itemIds).forEach(itemIds::remove);
+        return itemIds;
+    }
+
+    private void writeSnapshots(List<CartSnapshot> snapshots) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+
+        for (CartSnapshot snapshot : snapshots) {
+            Long cartId = snapshot.cartId != null ? snapshot.cartId : findOrCreateCartId(snapshot.cart);
+            String loginId = snapshot.cart.loginId;
+
+            snapshot.lines.forEach((cartItemId, line) -> {
+                if (line.persisted) {
+                    updates.add(new Object[]{line.count, line.addedPrice, now, loginId, cartItemId});
+                } else {
+                    inserts.add(new Object[]{cartItemId, cartId, line.itemId, line.count, line.addedPrice,
+                            now, now, loginId, loginId});
+                }
+            });
+            snapshot.deletedIds.forEach(cartItemId -> deletes.add(new Object[]{cartItemId}));
+        }
+
+        if (!inserts.isEmpty()) {
+            // 같은 상품 행이 이미 있으면(다른 경로로 담긴 경우) 메모리의 수량으로 맞춤 (uk_cart_item_cart_item)
+            jdbcTemplate.batchUpdate("insert into cart_item " +
+                    "(cart_item_id, cart_id, item_id, count, added_price, reg_time, update_time, created_by, modified_by) " +
+                    "values (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "on duplicate key update count = values(count), added_price = values(added_price), " +
+                    "update_time = values(update_time), " +
+                    "modified_by = values(modified_by)", inserts);
+        }
+        // 주문 등으로 이미 삭제된 상품이면 0건 수정 (다시 살아나지 않음)
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update cart_item set count = ?, added_price = ?, update_time = ?, modified_by = ? " +
+                    "where cart_item_id = ?", updates);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("delete from cart_item where cart_item_id = ?", deletes);
+        }
+    }
+
+    //처음 상품을 담은 회원은 장바구니(cart)부터 만듦
+    private Long findOrCreateCartId(CartEntry cart) {
+        Long cartId = cartRepository.findIdByMemberId(cart.memberId).orElseGet(() -> {
+            cartRepository.insertIfAbsent(idGenerator.nextId(Cart.class), cart.memberId, LocalDateTime.now(), cart.loginId);
+            return cartRepository.lastInsertId();
+        });
+
+        synchronized (cart) {
+            cart.cartId = cartId;
+        }
+        return cartId;
+    }
+
+    //회원 한 명의 장바구니. 필드는 synchronized (장바구니)로 잠근 상태에서 바꿈
+    //dirty, lastAccess는 스케줄러가 잠그지 않고 읽으므로 volatile
+    //writeLock은 synchronized (장바구니)보다 먼저 잡아야 함 (반대 순서로 잡으면 교착 상태)
+    private static final class CartEntry {
+
+        final String loginId;
+
+        final Long memberId;
+
+        //DB에 장바구니(cart)가 아직 없으면 null
+        Long cartId;
+
+        //장바구니 상품 id -> 상품. 담은 순서대로
+        final Map<Long, Line> lines = new LinkedHashMap<>();
+
+        //삭제되었지만 아직 DB에서 지우지 않은 장바구니 상품 id
+        final Set<Long> deletedIds = new HashSet<>();
+
+        volatile boolean dirty;
+
+        boolean evicted;
+
+        volatile Instant lastAccess = Instant.now();
+
+        //반영할 내용을 꺼낸 때부터 커밋(또는 실패해서 되돌릴 때)까지 잡는 락
+        //반영 중에는 dirty가 false라서 바뀐 내용이 없는 것처럼 보이므로 flush/evict는 이 락으로 반영이 끝나길 기다림
+        final ReentrantLock writeLock = new ReentrantLock();
+
+        CartEntry(String loginId, Long memberId) {
+            this.loginId = loginId;
+            this.memberId = memberId;
+        }
+
+        void markDirty(Line line) {
+            line.dirty = true;
+            dirty = true;
+        }
+
+        //상품이 삭제된 줄을 장바구니에서 뺌 (DB에 저장된 줄이면 다음 반영 때 삭제)
+        void removeItems(Set<Long> itemIds) {
+            lines.entrySet().removeIf(entry -> {
+                if (!itemIds.contains(entry.getValue().itemId)) {
+                    return false;
+                }
+                if (entry.getValue().persisted) {
+                    deletedIds.add(entry.getKey());
+                }
+                return true;
+            });
+            dirty = true;
+        }
+
+        //반영할 내용을 복사하고 깨끗한 상태로 바꿈
+        CartSnapshot takeSnapshot() {
+            Map<Long, Line> changedLines = new LinkedHashMap<>();
+            lines.forEach((cartItemId, line) -> {
+                if (line.dirty) {
+                    changedLines.put(cartItemId, new Line(line.itemId, line.count, line.addedPrice, line.persisted));
+                    line.dirty = false;
+                    line.persisted = true;
+                }
+            });
+            CartSnapshot snapshot = new CartSnapshot(this, cartId, changedLines, new HashSet<>(deletedIds));
+            deletedIds.clear();
+            dirty = false;
+            return snapshot;
+        }
+    }
+
+    //장바구니 상품 한 줄
+    private static final class Line {
+
+        final Long itemId;
+
+        int count;
+
+        //담을 때의 가격
+        Integer addedPrice;
+
+        //DB에 저장된 상품인지 (false면 insert, true면 update)
+        boolean persisted;
+
+        //마지막 반영 이후 바뀌었는지
+        boolean dirty;
+
+        Line(Long itemId, int count, Integer addedPrice, boolean persisted) {
+            this.itemId = itemId;
+            this.count = count;
+            this.addedPrice = addedPrice;
+            this.persisted = persisted;
+        }
+    }
+
+    //반영할 내용 (반영에 실패하면 restore로 장바구니를 다시 바뀐 상태로 돌려놓음)
+    private record CartSnapshot(CartEntry cart, Long cartId, Map<Long, Line> lines, Set<Long> deletedIds) {
+
+        void restore() {
+            lines.forEach((cartItemId, changed) -> {
+                Line line = cart.lines.get(cartItemId);
+                if (line != null) {
+                    line.dirty = true;
+                    line.persisted = changed.persisted;
+                }
+            });
+            deletedIds.forEach(cartItemId -> {
+                if (!cart.lines.containsKey(cartItemId)) {
+                    cart.deletedIds.add(cartItemId);
+                }
+            });
+            cart.dirty = true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.jpa.market.service;
+
+import com.jpa.market.repository.ArchivedOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//오래된 주문 보관(archive)
+//주문일이 보관 기준(retention-months개월 전 달의 1일)보다 오래된 주문을 orders/order_item 테이블에서
+//orders_archive/order_item_archive 테이블로 옮김 (order.archive.enabled가 true일 때, 매일 새벽 실행)
+//  -> 자주 조회되는 최근 주문 테이블이 작게 유지되어 DB 메모리(buffer pool)에 올라가 있을 수 있음
+//보관된 주문은 조회만 가능 (취소 불가)
+//
+//주문 내역 조회(OrderService.getOrderList)는 최근 주문을 다 넘긴 페이지부터 보관된 주문을 이어서 보여줌
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    //회원별 보관된 주문 수 캐시가 이보다 커지면 비움
+    private static final int MAX_CACHED_COUNTS = 10_000;
+
+    private final boolean enabled;
+
+    private final int retentionMonths;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    //로그인 id -> 보관된 주문 수
+    //보관된 주문은 보관 작업으로만 늘어나므로 작업이 끝날 때만 비움
+    private final Map<String, Long> archivedCounts = new ConcurrentHashMap<>();
+
+    public OrderArchiveService(@Value("${order.archive.enabled:false}") boolean enabled,
+                               @Value("${order.archive.retention-months:12}") int retentionMonths,
+                               JdbcTemplate jdbcTemplate,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+        this.jdbcTemplate = jdbcTemplate;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //회원의 보관된 주문 수
+    public long countArchived(String loginId) {
+        if (archivedCounts.size() > MAX_CACHED_COUNTS) {
+            archivedCounts.clear();
+        }
+        return archivedCounts.computeIfAbsent(loginId, archivedOrderRepository::countByLoginId);
+    }
+
+    @Scheduled(cron = "${order.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+
+        // 월 단위로 자름 (예: 12개월이면 작년 같은 달 1일 이전 주문)
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+
+        // 보관할 주문의 마지막 id를 잠그지 않고 먼저 구함 (order_date 인덱스 사용)
+        // 이후에는 이 id까지만 pk 범위로 잠그면서 옮기므로, 최근 주문 쪽 행은 잠그지 않음
+        Long maxOrderId = jdbcTemplate.queryForObject(
+                "select max(order_id) from orders where order_date < ?", Long.class, Timestamp.valueOf(cutoff));
+        if (maxOrderId == null) {
+            return;
+        }
+
+        long archived = 0L;
+        long lastOrderId = 0L;
+        while (true) {
+            long afterId = lastOrderId;
+            List<Long> movedIds = transactionTemplate.execute(status -> archiveChunk(cutoff, afterId, maxOrderId));
+            if (movedIds == null || movedIds.isEmpty()) {
+                break;
+            }
+            archived += movedIds.size();
+            lastOrderId = movedIds.get(movedIds.size() - 1);
+        }
+
+        archivedCounts.clear();
+        if (archived > 0) {
+            log.info("주문 보관 완료 (기준: {} 이전, 보관된 주문 수: {})", cutoff, archived);
+        }
+    }
+
+    //afterId 다음부터 maxOrderId까지의 오래된 주문 CHUNK_SIZE개를 보관 테이블로 옮김 (조각마다 별도 트랜잭션)
+    //pk 범위로만 읽으므로 잠금(for update)도 이 범위 안에만 걸림 (옮기는 동안 취소 요청이 같은 주문을 바꾸지 못하도록)
+    //id는 미리 할당받은 범위에서 쓰므로 범위 안에 최근 주문이 섞여있을 수 있어서 주문일 조건도 같이 확인
+    //@return 옮긴 주문 id (오름차순)
+    private List<Long> archiveChunk(LocalDateTime cutoff, long afterId, long maxOrderId) {
+        List<Long> orderIds = jdbcTemplate.queryForList(
+                "select order_id from orders where order_id > ? and order_id <= ? and order_date < ? " +
+                        "order by order_id limit ? for update",
+                Long.class, afterId, maxOrderId, Timestamp.valueOf(cutoff), CHUNK_SIZE);
+
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
+
+        String inClause = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        Object[] params = orderIds.toArray();
+
+        jdbcTemplate.update("insert into order_item_archive " +
+                "(order_item_id, order_id, item_id, order_price, count, reg_time, update_time, created_by, modified_by) " +
+                "select order_item_id, order_id, item_id, order_price, count, reg_time, update_time, created_by, modified_by " +
+                "from order_item where order_id in (" + inClause + ")", params);
+        jdbcTemplate.update("insert into orders_archive " +
+                "(order_id, member_id, order_date, order_status, total_price, item_count, reg_time, update_time, created_by, modified_by) " +
+                "select order_id, member_id, order_date, order_status, total_price, item_count, reg_time, update_time, created_by, modified_by " +
+                "from orders where order_id in (" + inClause + ")", params);
+
+        // 외래키 때문에 주문상품부터 삭제
+        jdbcTemplate.update("delete from order_item where order_id in (" + inClause + ")", params);
+        jdbcTemplate.update("delete from orders where order_id in (" + inClause + ")", params);
+
+        return orderIds;
+    }
+}
@@ -0,0 +1,238 @@
+package com.jpa.market.service;
+
+import com.jpa.market.config.exception.OrderQueueFullException;
+import com.jpa.market.config.exception.OutOfStockException;
+import com.jpa.market.constant.OrderTicketStatus;
+import com.jpa.market.dto.OrderTicketDto;
+import com.jpa.market.dto.QueuedOrderDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+//비동기 주문 처리 대기열 (order.pipeline.enabled가 true일 때만 사용)
+//요청 스레드(Tomcat)는 주문을 대기열에 넣고 접수증(ticket)만 받아서 바로 응답 (202)
+//  -> 주문이 몰려도 요청 스레드가 DB 락을 기다리며 묶여있지 않음
+//대기열에 쌓인 주문은 가상 스레드(virtual thread)에서 여러 건씩 묶어서 한 트랜잭션으로 처리
+//  -> 같은 상품의 재고 차감은 묶인 주문들의 수량을 합쳐서 update 한 문장으로 처리됨 (OrderService.placeOrders)
+//묶음 중 하나라도 실패하면(재고 부족 등) 묶음 전체를 롤백하고 한 건씩 다시 처리해서 실패한 주문만 FAILED
+//
+//주의 : 대기열은 메모리에 있으므로 서버가 비정상 종료되면 처리되지 않은 주문은 사라짐 (정상 종료 시에는 모두 처리 후 종료)
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final Duration ticketTtl;
+
+    private final OrderService orderService;
+
+    private final BlockingQueue<Ticket> queue;
+
+    //접수증 id -> 접수증 (처리가 끝난 접수증은 ticketTtl이 지나면 삭제)
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    //묶음 처리용 가상 스레드. 동시에 처리하는 묶음 수는 workers로 제한 (DB 커넥션 수보다 작게)
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Semaphore workerPermits;
+
+    private volatile boolean running = false;
+
+    private Thread dispatcher;
+
+    public OrderPipeline(@Value("${order.pipeline.enabled:false}") boolean enabled,
+                         @Value("${order.pipeline.queue-capacity:1000}") int queueCapacity,
+                         @Value("${order.pipeline.batch-size:50}") int batchSize,
+                         @Value("${order.pipeline.workers:4}") int workers,
+                         @Value("${order.pipeline.ticket-ttl-seconds:600}") long ticketTtlSeconds,
+                         OrderService orderService) {
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.ticketTtl = Duration.ofSeconds(ticketTtlSeconds);
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.workerPermits = new Semaphore(Math.max(1, workers));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        dispatcher = Thread.ofPlatform().name("order-pipeline").daemon().start(this::dispatch);
+        log.info("주문 대기열 시작 (묶음 크기: {}, 동시 처리 묶음 수: {})", batchSize, workerPermits.availablePermits());
+    }
+
+    /**
+     * 주문을 대기열에 넣고 접수증 반환. 대기열이 가득 차면 OrderQueueFullException (503)
+     */
+    public OrderTicketDto submit(QueuedOrderDto queuedOrder) {
+        if (!running) {
+            throw new IllegalStateException("주문 대기열이 동작 중이 아닙니다.");
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), queuedOrder);
+        tickets.put(ticket.id, ticket);
+
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.id);
+            throw new OrderQueueFullException("주문이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return ticket.toDto();
+    }
+
+    //접수증 조회 (본인 주문만)
+    public OrderTicketDto getTicket(String ticketId, String loginId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new EntityNotFoundException("주문 접수 정보를 찾을 수 없습니다. (ID: " + ticketId + ")");
+        }
+        if (!ticket.order.getLoginId().equals(loginId)) {
+            throw new AccessDeniedException("주문 접수 정보 조회 권한이 없습니다.");
+        }
+        return ticket.toDto();
+    }
+
+    //대기열에서 꺼내서 묶음으로 처리하도록 넘김
+    //일부러 기다렸다가 묶지 않고, 처리 중인 동안 쌓인 주문을 한 번에 꺼내서 묶음 (한가할 때는 한 건씩 바로 처리)
+    private void dispatch() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                workerPermits.acquire();
+
+                List<Ticket> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                executor.submit(() -> {
+                    try {
+                        process(batch);
+                    } finally {
+                        workerPermits.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void process(List<Ticket> batch) {
+        try {
+            List<Long> orderIds = orderService.placeOrders(batch.stream().map(ticket -> ticket.order).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).complete(orderIds.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).fail(failureMessage(e));
+                return;
+            }
+            // 묶음 전체가 롤백되었으므로 한 건씩 다시 처리해서 실패한 주문만 골라냄
+            for (Ticket ticket : batch) {
+                process(List.of(ticket));
+            }
+        } catch (Throwable e) {
+            // Error 등은 다시 처리해도 같은 결과일 가능성이 크므로 묶음의 주문을 모두 실패 처리
+            // (잡지 않으면 접수증이 QUEUED로 남아서 삭제되지도 않음)
+            log.error("대기열 주문 처리 실패 (묶음 전체 실패, 주문 수: {})", batch.size(), e);
+            for (Ticket ticket : batch) {
+                ticket.fail("주문 처리 중 에러가 발생하였습니다.");
+            }
+        }
+    }
+
+    private String failureMessage(RuntimeException e) {
+        if (e instanceof OutOfStockException || e instanceof EntityNotFoundException
+                || e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            return e.getMessage();
+        }
+        log.error("대기열 주문 처리 실패", e);
+        return "주문 처리 중 에러가 발생하였습니다.";
+    }
+
+    //처리가 끝나고 오래된 접수증 삭제
+    @Scheduled(fixedDelay = 60_000)
+    public void removeExpiredTickets() {
+        Instant expiredBefore = Instant.now().minus(ticketTtl);
+        tickets.values().removeIf(ticket -> ticket.status != OrderTicketStatus.QUEUED
+                && ticket.finishedAt.isBefore(expiredBefore));
+    }
+
+    //서버 종료 시 대기열에 남은 주문까지 처리한 뒤 종료
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.join();
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("주문 대기열 종료 대기 시간 초과 (처리 중인 주문이 남아있음)");
+        }
+    }
+
+    //접수증. 상태는 가상 스레드에서 바꾸고 요청 스레드에서 읽으므로 volatile
+    private static final class Ticket {
+
+        final String id;
+
+        final QueuedOrderDto order;
+
+        volatile OrderTicketStatus status = OrderTicketStatus.QUEUED;
+
+        volatile Long orderId;
+
+        volatile String message;
+
+        volatile Instant finishedAt;
+
+        Ticket(String id, QueuedOrderDto order) {
+            this.id = id;
+            this.order = order;
+        }
+
+        void complete(Long orderId) {
+            this.orderId = orderId;
+            this.finishedAt = Instant.now();
+            this.status = OrderTicketStatus.COMPLETED;
+        }
+
+        void fail(String message) {
+            this.message = message;
+            this.finishedAt = Instant.now();
+            this.status = OrderTicketStatus.FAILED;
+        }
+
+        OrderTicketDto toDto() {
+            return new OrderTicketDto(id, status, orderId, message);
+        }
+    }
+}
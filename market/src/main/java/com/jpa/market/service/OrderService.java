@@ -1,14 +1,19 @@
 package com.jpa.market.service;
 
+import com.jpa.market.dto.MemberOrderSummaryDto;
 import com.jpa.market.dto.OrderDto;
 import com.jpa.market.dto.OrderHistDto;
-import com.jpa.market.dto.OrderItemDto;
+import com.jpa.market.dto.OrderItemQueryDto;
+import com.jpa.market.dto.QueuedOrderDto;
 import com.jpa.market.entity.*;
 import com.jpa.market.mapper.OrderItemMapper;
 import com.jpa.market.mapper.OrderMapper;
-import com.jpa.market.repository.ItemImgRepository;
+import com.jpa.market.repository.ArchivedOrderRepository;
+import com.jpa.market.repository.CartItemRepository;
 import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberOrderSummaryRepository;
 import com.jpa.market.repository.MemberRepository;
+import com.jpa.market.repository.OrderItemRepository;
 import com.jpa.market.repository.OrderRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -20,8 +25,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 @Transactional
@@ -31,9 +36,18 @@ public class OrderService {
     private final ItemRepository itemRepository;
     private final MemberRepository memberRepository;
     private final OrderRepository orderRepository;
-    private final ItemImgRepository itemImgRepository;
+    private final OrderItemRepository orderItemRepository;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
+    //재고 차감/복구 (재고 변경 이벤트도 여기서 발행)
+    private final InventoryService inventoryService;
+    //대기열 주문 처리 시 장바구니 비우기
+    private final CartItemRepository cartItemRepository;
+    //회원별 주문 요약 (주문/취소할 때 같은 트랜잭션에서 갱신)
+    private final MemberOrderSummaryRepository memberOrderSummaryRepository;
+    //보관된 오래된 주문 조회
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderArchiveService orderArchiveService;
 
     public Long order(OrderDto orderDto, String loginId) {
 
@@ -56,7 +70,10 @@ public class OrderService {
                 .orElseThrow(() -> new EntityNotFoundException("해당 회원을 찾을 수 없습니다. loginId: " + loginId));
 
         // ... 이후 로직 (OrderItem 생성 및 Order 저장) 동일 ...
-        OrderItem orderItem = OrderItem.createOrderItem(item, orderDto.getCount());
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, orderDto.getCount());
+
+        // 재고 차감은 update 한 문장으로 처리 (동시 주문에도 재고보다 많이 팔리지 않음)
+        inventoryService.decrease(item.getId(), orderDto.getCount());
 
         List<OrderItem> orderItemList = new ArrayList<>();
         orderItemList.add(orderItem);
@@ -68,10 +85,17 @@ public class OrderService {
 
         Order order = Order.createOrder(member, orderItemList);
         orderRepository.save(order);
+        addToSummary(List.of(order));
 
         return order.getId();
     }
 
+    //주문 내역 조회 (쿼리 수가 주문/주문상품 개수와 상관없이 고정)
+    //  1. 주문 페이지 조회 (+ 전체 개수 count 쿼리)
+    //  2. 그 페이지 주문들의 주문상품 전체를 상품명, 대표 이미지와 함께 한 번에 조회
+    //주문상품/상품/이미지를 주문마다 지연 로딩하지 않음
+    //최근 주문(orders)을 다 넘긴 페이지부터는 보관된 주문(orders_archive)을 이어서 조회 (최근 주문만 보는 동안은 보관 테이블을 읽지 않음)
+    @Transactional(readOnly = true)
     public Page<OrderHistDto> getOrderList(String loginId, Pageable pageable) {
 
         // 1. DB에서 페이징된 주문 엔티티들을 가져옵니다.
@@ -79,48 +103,49 @@ public class OrderService {
         //사용자의 아이디와 페이징 조건을 이용하여 주문 목록을 조회
         Page<Order> ordersPage = orderRepository.findOrders(loginId, pageable);
 
-        List<OrderHistDto> orderHistDtoList = new ArrayList<>();
-
-        //위 세트 중에서 **"실제 데이터 리스트"**인 List<Order>만 추출
-        //만약 사용자님이 한 페이지에 5개씩 보여주기로 설정했다면,
-        // getContent()는 현재 페이지에 해당하는 5개의 Order 엔티티가 담긴 리스트가 됩니다.
+        //주문 id -> 주문 DTO (조회한 순서 유지)
+        Map<Long, OrderHistDto> orderHistDtoMap = new LinkedHashMap<>();
         for (Order order : ordersPage.getContent()) {
+            // Order 엔티티 -> OrderHistDto 변환 (주문 필드만 사용, 연관관계는 건드리지 않음)
+            orderHistDtoMap.put(order.getId(), orderMapper.entityToDto(order));
+        }
 
-            // [1] Order 엔티티 -> OrderHistDto 변환 (주문 1건에 대한 DTO 생성)부모
-            OrderHistDto orderHistDto = orderMapper.entityToDto(order);
-
-            // [2] 해당 주문에 포함된 주문 상품 목록을 조회
-            //하나의 주문안에 여러 상품이 있으므로 for 반복
-            for (OrderItem orderItem : order.getOrderItems()) {
-
-                // 주문한 상품의 대표 이미지 조회
-                //OrderItem에는 이미지 정보 없음. ItemImg는 별도 테이블
-                ItemImg itemImg = itemImgRepository.findByItemIdAndRepImgYn(
-                        orderItem.getItem().getId(), "Y");
-
-                //이미지가 없으면 url을 공백으로 처리
-                String imgUrl = (itemImg != null) ? itemImg.getImgUrl() : "";
+        // 2. 이번 페이지 주문들의 주문상품을 한 번에 조회해서 주문별로 나눠 담기
+        if (!orderHistDtoMap.isEmpty()) {
+            List<OrderItemQueryDto> orderItems = orderItemRepository.findOrderItemDtoList(orderHistDtoMap.keySet());
 
-                // 주문상품 DTO 생성 (이미지 포함)
-                // [3] MapStruct로 상품 DTO 변환 (이미지 경로 포함) -> OrderItem 엔티티 값 복사
-                OrderItemDto orderItemDto = orderItemMapper.entityToDto(orderItem, imgUrl);
+            for (OrderItemQueryDto orderItem : orderItems) {
+                orderHistDtoMap.get(orderItem.getOrderId())
+                        .addOrderItemDto(orderItemMapper.queryDtoToDto(orderItem));
+            }
+        }
 
+        // 3. 최근 주문으로 페이지가 다 안 채워지면 보관된 주문으로 이어서 채우기
+        //    보관된 주문 수는 보관 작업이 돌 때만 바뀌므로 캐시된 값을 사용
+        long archivedTotal = orderArchiveService.countArchived(loginId);
+        if (orderHistDtoMap.size() < pageable.getPageSize() && archivedTotal > 0) {
+            long archiveOffset = Math.max(0L, pageable.getOffset() - ordersPage.getTotalElements());
+            int limit = pageable.getPageSize() - orderHistDtoMap.size();
 
-                // [4] 부모인 주문에 item을 한건씩 추가해줘야함.
-                // orderItemDto는 list를 돌면서 하나씩 생성됨. -> 리스트를 한번에 넣을 수 없음.
-                //그래서 '하나 추가하는 메서드'가 필요함
-                orderHistDto.addOrderItemDto(orderItemDto);
+            Map<Long, OrderHistDto> archivedDtoMap = new LinkedHashMap<>();
+            for (ArchivedOrder archivedOrder : archivedOrderRepository.findArchivedOrders(loginId, archiveOffset, limit)) {
+                archivedDtoMap.put(archivedOrder.getId(), orderMapper.archivedEntityToDto(archivedOrder));
             }
-
-            //주문 단위 DTO 리스트에 추가 -> 하나의 주문 완성
-            orderHistDtoList.add(orderHistDto);
+            if (!archivedDtoMap.isEmpty()) {
+                for (OrderItemQueryDto orderItem : archivedOrderRepository.findOrderItemDtoList(archivedDtoMap.keySet())) {
+                    archivedDtoMap.get(orderItem.getOrderId())
+                            .addOrderItemDto(orderItemMapper.queryDtoToDto(orderItem));
+                }
+            }
+            orderHistDtoMap.putAll(archivedDtoMap);
         }
 
-        // 3. 최종적으로 원래의 페이징 정보(totalElements 등)를 유지하며 리턴
+        // 4. 최종적으로 원래의 페이징 정보(totalElements 등)를 유지하며 리턴
         //content : DTO 리스트
         //pageable : 요청받은 페이지 정보
-        //totalElements : 엔티티 Page에서 가져온 전체 개수
-        return new PageImpl<>(orderHistDtoList, pageable, ordersPage.getTotalElements());
+        //totalElements : 최근 주문 개수 + 보관된 주문 개수
+        return new PageImpl<>(new ArrayList<>(orderHistDtoMap.values()), pageable,
+                ordersPage.getTotalElements() + archivedTotal);
     }
 
     public void cancelOrder(Long orderId, String loginId) {
@@ -139,8 +164,20 @@ public class OrderService {
             throw new AccessDeniedException("주문 취소 권한이 없습니다.");
         }
 
-        // 3. 주문 취소 실행 (내부에서 상태 변경 및 재고 복구 로직 호출)
-        order.cancelOrder();
+        // 3. 주문 상태 변경 (ORDER인 경우에만 CANCEL로 바뀜)
+        // 이미 취소된 주문이면 재고를 또 복구하지 않도록 막음 (동시에 두 번 취소 요청이 와도 한 번만 성공)
+        if (orderRepository.cancelIfOrdered(orderId) == 0) {
+            throw new IllegalStateException("이미 취소된 주문입니다.");
+        }
+
+        // 4. 회원 주문 요약에서 빼기 (주문 자체의 총액/수량은 주문 기록으로 그대로 둠)
+        memberOrderSummaryRepository.subtractOrder(order.getMember().getId(),
+                order.getTotalPrice(), order.getItemCount(), LocalDateTime.now());
+
+        // 5. 재고 복구 (update 한 문장으로 처리)
+        for (OrderItem orderItem : order.getOrderItems()) {
+            inventoryService.increase(orderItem.getItem().getId(), orderItem.getCount());
+        }
     }
 
     /**
@@ -152,33 +189,143 @@ public class OrderService {
         Member member = memberRepository.findByLoginId(loginId)
                 .orElseThrow(() -> new EntityNotFoundException("해당 회원을 찾을 수 없습니다. loginId: " + loginId));
 
-        List<OrderItem> orderItemList = new ArrayList<>();
+        // 2. 같은 상품이 여러 번 들어오면 수량을 합침 (상품 id 오름차순)
+        SortedMap<Long, Integer> countByItemId = sumCountByItemId(orderDtoList);
 
-        // 2. 주문할 상품 리스트를 돌면서 OrderItem 엔티티 생성
-        for (OrderDto orderDto : orderDtoList) {
-            Item item = itemRepository.findById(orderDto.getItemId())
-                    .orElseThrow(() -> new EntityNotFoundException("상품이 존재하지 않습니다. ID: " + orderDto.getItemId()));
+        // 3. 주문할 상품을 한 번에 조회 (in 쿼리 1번)
+        Map<Long, Item> itemMap = findItemMap(countByItemId.keySet());
 
-            // OrderItem 생성 (이 안에서 재고 감소 로직이 실행됨)
-            OrderItem orderItem = OrderItem.createOrderItem(item, orderDto.getCount());
-            orderItemList.add(orderItem);
-        }
+        // 4. 상품 id 오름차순으로 OrderItem 생성
+        List<OrderItem> orderItemList = createOrderItems(countByItemId, itemMap);
 
-        // 3. 하나의 주문(Order) 엔티티 생성 (여러 개의 주문상품 리스트를 포함)
+        // 5. 재고 차감 (전체 상품을 update 한 문장으로 처리)
+        //    여러 주문이 같은 상품들을 동시에 주문해도 항상 상품 id 순서로 행 락을 잡으므로 교착 상태(deadlock)가 생기지 않음
+        inventoryService.decreaseAll(countByItemId);
+
+        // 6. 하나의 주문(Order) 엔티티 생성 (여러 개의 주문상품 리스트를 포함)
         Order order = Order.createOrder(member, orderItemList);
 
-        // 4. DB 저장
+        // 7. DB 저장 + 회원 주문 요약 갱신
         orderRepository.save(order);
+        addToSummary(List.of(order));
 
         return order.getId();
     }
-}
 
+    /**
+     * 대기열(OrderPipeline)에 쌓인 여러 주문을 한 트랜잭션으로 처리
+     * 회원/상품 조회와 재고 차감은 주문 수와 상관없이 한 번씩만 실행 (같은 상품 수량은 모두 합쳐서 차감)
+     * 하나라도 실패하면 전부 롤백되므로, 호출하는 쪽에서 주문을 한 건씩 다시 처리해야 함
+     * @return 주문 id (queuedOrders와 같은 순서)
+     */
+    public List<Long> placeOrders(List<QueuedOrderDto> queuedOrders) {
+
+        // 1. 전체 주문의 회원, 상품별 합계 수량 모으기
+        Set<String> loginIds = new HashSet<>();
+        List<OrderDto> allOrderDtos = new ArrayList<>();
+        for (QueuedOrderDto queuedOrder : queuedOrders) {
+            loginIds.add(queuedOrder.getLoginId());
+            allOrderDtos.addAll(queuedOrder.getOrderDtoList());
+        }
+        SortedMap<Long, Integer> totalCountByItemId = sumCountByItemId(allOrderDtos);
 
+        // 2. 회원, 상품을 각각 한 번에 조회
+        Map<String, Member> memberMap = new HashMap<>();
+        for (Member member : memberRepository.findByLoginIdIn(loginIds)) {
+            memberMap.put(member.getLoginId(), member);
+        }
+        Map<Long, Item> itemMap = findItemMap(totalCountByItemId.keySet());
+
+        // 3. 재고 차감 (전체 주문의 상품을 update 한 문장으로 처리)
+        inventoryService.decreaseAll(totalCountByItemId);
+
+        // 4. 주문마다 Order 생성
+        List<Order> orders = new ArrayList<>();
+        Map<String, List<Long>> cartItemIdsByLoginId = new LinkedHashMap<>();
+        for (QueuedOrderDto queuedOrder : queuedOrders) {
+            Member member = memberMap.get(queuedOrder.getLoginId());
+            if (member == null) {
+                throw new EntityNotFoundException("해당 회원을 찾을 수 없습니다. loginId: " + queuedOrder.getLoginId());
+            }
+            List<OrderItem> orderItemList = createOrderItems(sumCountByItemId(queuedOrder.getOrderDtoList()), itemMap);
+            orders.add(Order.createOrder(member, orderItemList));
+            if (!queuedOrder.getCartItemIds().isEmpty()) {
+                cartItemIdsByLoginId.computeIfAbsent(queuedOrder.getLoginId(), id -> new ArrayList<>())
+                        .addAll(queuedOrder.getCartItemIds());
+            }
+        }
+        orderRepository.saveAll(orders);
+        addToSummary(orders);
+
+        // 5. 장바구니에서 주문한 상품 비우기 (회원마다 delete 한 문장)
+        //    접수할 때만 검증했으므로 같은 장바구니 상품으로 접수증이 두 번 들어왔을 수 있음 (더블클릭, 재시도)
+        //    지운 개수가 모자라면 이미 주문된 상품이므로 예외 -> 한 건씩 다시 처리할 때 중복 주문만 실패함
+        cartItemIdsByLoginId.forEach((loginId, cartItemIds) -> {
+            int deleted = cartItemRepository.deleteOwnedCartItems(new HashSet<>(cartItemIds), loginId);
+            if (deleted != cartItemIds.size()) {
+                throw new IllegalStateException("이미 주문되었거나 장바구니에 없는 상품이 있습니다.");
+            }
+        });
 
+        List<Long> orderIds = new ArrayList<>();
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        return orderIds;
+    }
 
+    //회원 주문 요약 조회 (요약 행 하나만 읽음). 주문한 적이 없으면 모두 0
+    @Transactional(readOnly = true)
+    public MemberOrderSummaryDto getOrderSummary(String loginId) {
+        return memberOrderSummaryRepository.findByLoginId(loginId)
+                .map(summary -> new MemberOrderSummaryDto(summary.getOrderCount(), summary.getTotalPrice(), summary.getItemCount()))
+                .orElseGet(() -> new MemberOrderSummaryDto(0, 0L, 0L));
+    }
 
+    //새 주문을 회원 주문 요약에 더함 (회원마다 upsert 한 문장)
+    private void addToSummary(List<Order> orders) {
+        Map<Long, long[]> totalsByMemberId = new LinkedHashMap<>();
+        for (Order order : orders) {
+            long[] totals = totalsByMemberId.computeIfAbsent(order.getMember().getId(), id -> new long[3]);
+            totals[0] += 1;                     // 주문 건수
+            totals[1] += order.getTotalPrice(); // 총 주문 금액
+            totals[2] += order.getItemCount();  // 총 주문 수량
+        }
 
+        LocalDateTime now = LocalDateTime.now();
+        totalsByMemberId.forEach((memberId, totals) ->
+                memberOrderSummaryRepository.addOrders(memberId, (int) totals[0], totals[1], totals[2], now));
+    }
 
+    //상품 id별 주문 수량 합계 (상품 id 오름차순)
+    private SortedMap<Long, Integer> sumCountByItemId(List<OrderDto> orderDtoList) {
+        SortedMap<Long, Integer> countByItemId = new TreeMap<>();
+        for (OrderDto orderDto : orderDtoList) {
+            countByItemId.merge(orderDto.getItemId(), orderDto.getCount(), Integer::sum);
+        }
+        return countByItemId;
+    }
 
+    //상품을 한 번에 조회 (하나라도 없으면 EntityNotFoundException)
+    private Map<Long, Item> findItemMap(Set<Long> itemIds) {
+        Map<Long, Item> itemMap = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            itemMap.put(item.getId(), item);
+        }
+        for (Long itemId : itemIds) {
+            if (!itemMap.containsKey(itemId)) {
+                throw new EntityNotFoundException("상품이 존재하지 않습니다. ID: " + itemId);
+            }
+        }
+        return itemMap;
+    }
 
+    //OrderItem 생성 (재고는 차감하지 않음)
+    private List<OrderItem> createOrderItems(SortedMap<Long, Integer> countByItemId, Map<Long, Item> itemMap) {
+        List<OrderItem> orderItemList = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : countByItemId.entrySet()) {
+            orderItemList.add(OrderItem.createReservedOrderItem(itemMap.get(entry.getKey()), entry.getValue()));
+        }
+        return orderItemList;
+    }
+}
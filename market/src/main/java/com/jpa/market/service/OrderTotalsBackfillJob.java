@@ -0,0 +1,137 @@
+package com.jpa.market.service;
+
+import com.jpa.market.repository.DataMigrationRepository;
+import com.jpa.market.repository.MemberOrderSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+//주문 테이블에 총 주문 금액/수량(total_price, item_count) 컬럼이 추가되기 전에 생성된 주문들을 채우고,
+//회원 주문 요약을 기존 주문으로 채우는 작업
+//서버가 뜬 후 한번 실행되고, 이미 채워진 주문은 건너뜀 (주문상품이 1개 이상이면 item_count는 0일 수 없음)
+//회원 주문 요약은 완료 기록(data_migration)이 없을 때만 채움
+//  -> 요약 테이블이 비어있는지로 판단하면 작업 전에 들어온 주문 하나(다른 서버 포함) 때문에 아무 회원도 채워지지 않음
+//주문/회원이 많을 수 있으므로 id 순으로 나눠서 조각마다 별도 트랜잭션으로 처리 (긴 트랜잭션/락 방지)
+@Slf4j
+@Component
+public class OrderTotalsBackfillJob {
+
+    private static final int CHUNK_SIZE = 500;
+
+    //회원 주문 요약 채우기 완료 기록 이름
+    private static final String SUMMARY_MIGRATION = "member_order_summary_seed";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MemberOrderSummaryRepository memberOrderSummaryRepository;
+
+    private final DataMigrationRepository dataMigrationRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderTotalsBackfillJob(JdbcTemplate jdbcTemplate,
+                                  MemberOrderSummaryRepository memberOrderSummaryRepository,
+                                  DataMigrationRepository dataMigrationRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.memberOrderSummaryRepository = memberOrderSummaryRepository;
+        this.dataMigrationRepository = dataMigrationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        // 1. 주문 총액/수량 채우기
+        long lastId = 0L;
+        long updated = 0L;
+
+        while (true) {
+            long fromId = lastId;
+            ChunkResult result = transactionTemplate.execute(status -> backfillChunk(fromId));
+
+            if (result == null) {
+                break;
+            }
+            updated += result.updated;
+            lastId = result.lastId;
+        }
+
+        if (updated > 0) {
+            log.info("주문 총액/수량 채우기 완료 (변경된 주문 수: {})", updated);
+        }
+
+        // 2. 회원 주문 요약 채우기 (처음 배포할 때 한 번)
+        //    주문 총액이 모두 채워진 후에 실행해야 함
+        //    그 사이 들어온 주문으로 이미 요약 행이 생긴 회원도 주문 집계값으로 덮어씀
+        //    중간에 실패하거나 여러 서버가 동시에 실행해도 다시 계산한 값은 같으므로 처음부터 다시 하면 됨
+        if (dataMigrationRepository.existsById(SUMMARY_MIGRATION)) {
+            return;
+        }
+
+        long lastMemberId = 0L;
+        long checked = 0L;
+        while (true) {
+            long fromId = lastMemberId;
+            ChunkResult result = transactionTemplate.execute(status -> rebuildSummaryChunk(fromId));
+
+            if (result == null) {
+                break;
+            }
+            checked += result.updated;
+            lastMemberId = result.lastId;
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                dataMigrationRepository.markApplied(SUMMARY_MIGRATION, LocalDateTime.now()));
+        log.info("회원 주문 요약 채우기 완료 (확인한 회원 수: {})", checked);
+    }
+
+    //lastMemberId 다음부터 회원 CHUNK_SIZE명의 주문 요약을 다시 계산. 더 이상 회원이 없으면 null
+    //주문이 없는 회원은 요약 행을 만들지 않음
+    private ChunkResult rebuildSummaryChunk(long lastMemberId) {
+        List<Long> memberIds = jdbcTemplate.queryForList(
+                "select member_id from member where member_id > ? order by member_id limit ?",
+                Long.class, lastMemberId, CHUNK_SIZE);
+
+        if (memberIds.isEmpty()) {
+            return null;
+        }
+
+        memberOrderSummaryRepository.rebuildMembers(memberIds, LocalDateTime.now());
+        return new ChunkResult(memberIds.get(memberIds.size() - 1), memberIds.size());
+    }
+
+    //lastId 다음부터 아직 총액이 없는 주문 CHUNK_SIZE개를 처리. 더 이상 없으면 null
+    private ChunkResult backfillChunk(long lastId) {
+        List<Long> orderIds = jdbcTemplate.queryForList(
+                "select order_id from orders where order_id > ? and item_count = 0 order by order_id limit ?",
+                Long.class, lastId, CHUNK_SIZE);
+
+        if (orderIds.isEmpty()) {
+            return null;
+        }
+
+        String inClause = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        int updated = jdbcTemplate.update(
+                "update orders o join (" +
+                        "select order_id, sum(order_price) as total_price, sum(count) as item_count " +
+                        "from order_item where order_id in (" + inClause + ") group by order_id" +
+                        ") s on o.order_id = s.order_id " +
+                        "set o.total_price = s.total_price, o.item_count = s.item_count " +
+                        "where o.item_count = 0",
+                orderIds.toArray());
+
+        return new ChunkResult(orderIds.get(orderIds.size() - 1), updated);
+    }
+
+    private record ChunkResult(long lastId, long updated) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.jpa.market;
+
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.CartItemDto;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.dto.MemberJoinDto;
+import com.jpa.market.entity.Item;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberRepository;
+import com.jpa.market.service.CartService;
+import com.jpa.market.service.MemberService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//한 회원이 동시에 장바구니에 담을 때 테스트 (기본 저장소 cart.store.type=jpa)
+//  - 처음 담기가 동시에 들어와도 장바구니(cart)는 하나만 생기고 모두 성공하는지
+//  - 같은 상품을 동시에 담아도 한 줄에 수량이 모두 더해지는지
+//트랜잭션마다 커밋되어야 하므로 @Transactional을 붙이지 않고, 만든 데이터는 테스트 후 삭제함
+@SpringBootTest
+class CartConcurrencyTest {
+
+    private static final String LOGIN_ID = "cartrace01";
+
+    private static final int REQUESTS = 16;
+
+    @Autowired
+    CartService cartService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long memberId;
+
+    private final List<Long> createdItemIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MemberJoinDto dto = new MemberJoinDto();
+        dto.setLoginId(LOGIN_ID);
+        dto.setPassword("12345678");
+        dto.setName("동시담기");
+        dto.setEmail("cartrace01@naver.com");
+        dto.setAddress("울산시 남구 삼산동");
+        memberId = memberService.joinMember(dto);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from cart_item where cart_id in (select cart_id from cart where member_id = ?)", memberId);
+        jdbcTemplate.update("delete from cart where member_id = ?", memberId);
+        memberRepository.deleteById(memberId);
+        itemRepository.deleteAllById(createdItemIds);
+        createdItemIds.clear();
+    }
+
+    private Long createItem(String itemName) {
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemName(itemName);
+        itemFormDto.setPrice(10000);
+        itemFormDto.setStockNumber(100);
+        itemFormDto.setItemDetail("동시 담기 테스트 상품 상세 설명");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+
+        Long itemId = itemRepository.save(Item.createItem(itemFormDto)).getId();
+        createdItemIds.add(itemId);
+        return itemId;
+    }
+
+    //요청 수만큼 스레드를 만들고 동시에 출발시켜서 각자 한 번씩 담기
+    //담기에 성공해서 받은 장바구니 상품 id 목록을 반환 (실패한 요청은 failures에 모음)
+    private List<Long> addConcurrently(IntFunction<Long> itemIdOf, List<Throwable> failures) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        List<Long> cartItemIds = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    CartItemDto cartItemDto = new CartItemDto();
+                    cartItemDto.setItemId(itemIdOf.apply(index));
+                    cartItemDto.setCount(1);
+                    cartItemIds.add(cartService.addCart(cartItemDto, LOGIN_ID));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        done.await(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        return cartItemIds;
+    }
+
+    private Long countCarts() {
+        return jdbcTemplate.queryForObject("select count(*) from cart where member_id = ?", Long.class, memberId);
+    }
+
+    //장바구니 상품 id -> 수량
+    private Map<Long, Integer> savedCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("select ci.cart_item_id, ci.count from cart_item ci join cart c on c.cart_id = ci.cart_id " +
+                        "where c.member_id = ?",
+                rs -> {
+                    counts.put(rs.getLong("cart_item_id"), rs.getInt("count"));
+                }, memberId);
+        return counts;
+    }
+
+    @Test
+    @DisplayName("장바구니가 없는 회원이 동시에 여러 상품을 처음 담아도 장바구니는 하나만 생기고 모두 성공하는지 테스트")
+    void concurrentFirstAddTest() throws InterruptedException {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            itemIds.add(createItem("동시 담기 테스트 상품" + i));
+        }
+
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Long> cartItemIds = addConcurrently(itemIds::get, failures);
+
+        assertThat(failures).isEmpty();
+        assertThat(countCarts()).isEqualTo(1L);
+        // 상품마다 한 줄씩, 돌려받은 id가 모두 저장되어 있어야 함
+        assertThat(savedCounts().keySet()).containsExactlyInAnyOrderElementsOf(cartItemIds);
+        assertThat(savedCounts()).hasSize(REQUESTS);
+    }
+
+    @Test
+    @DisplayName("같은 상품을 동시에 담아도 한 줄에 수량이 모두 더해지는지 테스트")
+    void concurrentSameItemAddTest() throws InterruptedException {
+        Long itemId = createItem("동시 담기 테스트 상품");
+
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Long> cartItemIds = addConcurrently(index -> itemId, failures);
+
+        assertThat(failures).isEmpty();
+        assertThat(countCarts()).isEqualTo(1L);
+        // 모든 요청이 같은 장바구니 상품 id를 돌려받고, 수량은 요청 수만큼
+        assertThat(Set.copyOf(cartItemIds)).hasSize(1);
+        assertThat(savedCounts()).containsExactly(Map.entry(cartItemIds.get(0), REQUESTS));
+    }
+}
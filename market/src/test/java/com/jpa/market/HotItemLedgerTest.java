@@ -0,0 +1,123 @@
+package com.jpa.market;
+
+import com.jpa.market.config.exception.OutOfStockException;
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.entity.Item;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.service.HotItemLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//인기 상품 재고 장부 테스트
+//설정과 상관없이 테스트용 장부를 직접 만들어서 사용 (스케줄러가 돌지 않으므로 flush는 직접 호출)
+@SpringBootTest
+class HotItemLedgerTest {
+
+    private static final int BUYERS = 64;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    private Long itemId;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteById(itemId);
+    }
+
+    private HotItemLedger createLedger(int stockNumber) {
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemName("인기 상품 테스트");
+        itemFormDto.setPrice(10000);
+        itemFormDto.setStockNumber(stockNumber);
+        itemFormDto.setItemDetail("인기 상품 테스트 상세 설명");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+        itemId = itemRepository.save(Item.createItem(itemFormDto)).getId();
+
+        HotItemLedger ledger = new HotItemLedger(true, List.of(itemId), 8, itemRepository, jdbcTemplate, eventPublisher);
+        ledger.load();
+        return ledger;
+    }
+
+    @Test
+    @DisplayName("64명이 동시에 주문해도 재고보다 많이 팔리지 않고, flush 후 DB 재고와 판매상태가 맞는지 테스트")
+    void concurrentReserveAndFlushTest() throws InterruptedException {
+        int stock = 100;
+        HotItemLedger ledger = createLedger(stock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(BUYERS);
+        AtomicInteger success = new AtomicInteger();
+
+        // 64명 x 3번 = 192번 주문, 재고는 100개
+        for (int i = 0; i < BUYERS; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 3; j++) {
+                        try {
+                            ledger.reserve(itemId, 1);
+                            success.incrementAndGet();
+                        } catch (OutOfStockException e) {
+                            // 재고 부족은 정상적인 실패
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(success.get()).isEqualTo(stock);
+
+        ledger.flush();
+
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        assertThat(item.getStockNumber()).isEqualTo(0);
+        assertThat(item.getItemSellStatus()).isEqualTo(ItemSellStatus.SOLD_OUT);
+    }
+
+    @Test
+    @DisplayName("취소로 재고가 돌아오면 flush 후 판매중으로 바뀌는지 테스트")
+    void releaseAndFlushTest() {
+        HotItemLedger ledger = createLedger(2);
+
+        assertThat(ledger.reserve(itemId, 2)).isTrue();
+        ledger.flush();
+        assertThat(itemRepository.findById(itemId).orElseThrow().getItemSellStatus()).isEqualTo(ItemSellStatus.SOLD_OUT);
+
+        assertThat(ledger.release(itemId, 1)).isTrue();
+        ledger.flush();
+
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        assertThat(item.getStockNumber()).isEqualTo(1);
+        assertThat(item.getItemSellStatus()).isEqualTo(ItemSellStatus.SELL);
+    }
+}
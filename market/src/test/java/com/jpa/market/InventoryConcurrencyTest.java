@@ -0,0 +1,202 @@
+package com.jpa.market;
+
+import com.jpa.market.config.exception.OutOfStockException;
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.entity.Item;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//한 상품에 동시에 주문이 몰렸을 때 재고 차감 테스트
+//트랜잭션마다 커밋되어야 하므로 @Transactional을 붙이지 않고, 만든 상품은 테스트 후 삭제함
+@SpringBootTest
+class InventoryConcurrencyTest {
+
+    private static final int BUYERS = 64;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<Long> createdItemIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllById(createdItemIds);
+        createdItemIds.clear();
+    }
+
+    private Long createItem(int stockNumber) {
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemName("동시 주문 테스트 상품");
+        itemFormDto.setPrice(10000);
+        itemFormDto.setStockNumber(stockNumber);
+        itemFormDto.setItemDetail("동시 주문 테스트 상품 상세 설명");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+
+        Long itemId = itemRepository.save(Item.createItem(itemFormDto)).getId();
+        createdItemIds.add(itemId);
+        return itemId;
+    }
+
+    //구매자 수만큼 스레드를 만들고 동시에 출발시켜서 각자 attempts번 주문
+    //성공한 주문 수와 걸린 시간(ms)을 반환
+    private long[] runBuyers(int attempts, Runnable buy) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(BUYERS);
+        AtomicInteger success = new AtomicInteger();
+
+        for (int i = 0; i < BUYERS; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < attempts; j++) {
+                        try {
+                            buy.run();
+                            success.incrementAndGet();
+                        } catch (OutOfStockException e) {
+                            // 재고 부족은 정상적인 실패
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        done.await(60, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        executor.shutdown();
+
+        return new long[]{success.get(), elapsedMillis};
+    }
+
+    @Test
+    @DisplayName("64명이 동시에 주문해도 재고보다 많이 팔리지 않는지 테스트")
+    void concurrentDecreaseTest() throws InterruptedException {
+        int stock = 100;
+        Long itemId = createItem(stock);
+
+        // 64명 x 3번 = 192번 주문, 재고는 100개
+        long[] result = runBuyers(3, () -> inventoryService.decrease(itemId, 1));
+
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        assertThat(result[0]).isEqualTo(stock);
+        assertThat(item.getStockNumber()).isEqualTo(0);
+        assertThat(item.getItemSellStatus()).isEqualTo(ItemSellStatus.SOLD_OUT);
+    }
+
+    @Test
+    @DisplayName("재고 차감 처리량 비교 (엔티티 조회 후 수정 vs update 한 문장)")
+    void decreaseThroughputBenchmark() throws InterruptedException {
+        int attempts = 20;
+        int stock = BUYERS * attempts;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // 1. 기존 방식 : 엔티티 조회 -> removeStock -> 커밋 (락 없음)
+        Long legacyItemId = createItem(stock);
+        long[] legacy = runBuyers(attempts, () -> transactionTemplate.executeWithoutResult(status ->
+                itemRepository.findById(legacyItemId).orElseThrow().removeStock(1)));
+        int legacyStock = itemRepository.findById(legacyItemId).orElseThrow().getStockNumber();
+
+        // 2. update 한 문장으로 차감
+        Long atomicItemId = createItem(stock);
+        long[] atomic = runBuyers(attempts, () -> inventoryService.decrease(atomicItemId, 1));
+        int atomicStock = itemRepository.findById(atomicItemId).orElseThrow().getStockNumber();
+
+        System.out.printf("[기존 방식] 성공 %d건, 남은 재고 %d (정상이면 %d), %dms, %.0f건/초%n",
+                legacy[0], legacyStock, stock - legacy[0], legacy[1], legacy[0] * 1000.0 / Math.max(1, legacy[1]));
+        System.out.printf("[update 방식] 성공 %d건, 남은 재고 %d (정상이면 %d), %dms, %.0f건/초%n",
+                atomic[0], atomicStock, stock - atomic[0], atomic[1], atomic[0] * 1000.0 / Math.max(1, atomic[1]));
+
+        // update 방식은 성공한 주문 수와 줄어든 재고가 항상 일치해야 함
+        assertThat(atomic[0]).isEqualTo(stock);
+        assertThat(atomicStock).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("여러 상품 한 번에 차감 시 하나라도 재고가 부족하면 전부 롤백되는지 테스트")
+    void decreaseAllRollbackTest() {
+        Long enoughItemId = createItem(10);
+        Long shortItemId = createItem(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        SortedMap<Long, Integer> counts = new TreeMap<>(Map.of(enoughItemId, 10, shortItemId, 2));
+
+        // 재고가 충분했던 상품이 아니라 부족한 상품을 알려줘야 함
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                inventoryService.decreaseAll(counts)))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessageContaining("상품 ID: " + shortItemId);
+
+        assertThat(itemRepository.findById(enoughItemId).orElseThrow().getStockNumber()).isEqualTo(10);
+        assertThat(itemRepository.findById(shortItemId).orElseThrow().getStockNumber()).isEqualTo(1);
+
+        // 재고가 충분하면 한 문장으로 모두 차감되고, 0이 된 상품은 품절
+        transactionTemplate.executeWithoutResult(status ->
+                inventoryService.decreaseAll(new TreeMap<>(Map.of(enoughItemId, 10, shortItemId, 1))));
+
+        Item enoughItem = itemRepository.findById(enoughItemId).orElseThrow();
+        assertThat(enoughItem.getStockNumber()).isEqualTo(0);
+        assertThat(enoughItem.getItemSellStatus()).isEqualTo(ItemSellStatus.SOLD_OUT);
+        assertThat(itemRepository.findById(shortItemId).orElseThrow().getStockNumber()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("상품을 조회한 뒤 다른 주문이 재고를 다 팔았으면 한 번에 차감할 때 재고 부족으로 실패하는지 테스트")
+    void decreaseAllAfterConcurrentDrainTest() {
+        Long itemId = createItem(5);
+        Long otherItemId = createItem(5);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        TransactionTemplate otherTransaction = new TransactionTemplate(transactionManager);
+        otherTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            // 주문처럼 상품을 먼저 조회 (이 시점의 스냅샷이 만들어짐)
+            assertThat(itemRepository.findById(itemId).orElseThrow().getStockNumber()).isEqualTo(5);
+
+            // 그 사이 다른 주문이 재고 5개를 모두 사서 커밋
+            otherTransaction.executeWithoutResult(other -> inventoryService.decrease(itemId, 5));
+
+            inventoryService.decreaseAll(new TreeMap<>(Map.of(itemId, 1, otherItemId, 1)));
+        }))
+                .isInstanceOf(OutOfStockException.class)
+                .hasMessageContaining("상품 ID: " + itemId);
+
+        // 다른 주문이 산 만큼만 빠지고 더 팔리지 않음
+        assertThat(itemRepository.findById(itemId).orElseThrow().getStockNumber()).isEqualTo(0);
+        assertThat(itemRepository.findById(otherItemId).orElseThrow().getStockNumber()).isEqualTo(5);
+    }
+}
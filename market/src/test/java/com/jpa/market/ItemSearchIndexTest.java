@@ -0,0 +1,61 @@
+package com.jpa.market;
+
+import com.jpa.market.repository.ItemSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemSearchIndexTest {
+
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+
+    // 실제 상품과 겹치지 않도록 큰 id 사용
+    private static final Long ID1 = 900_000_001L;
+    private static final Long ID2 = 900_000_002L;
+
+    @AfterEach
+    void cleanUp() {
+        itemSearchIndex.remove(ID1);
+        itemSearchIndex.remove(ID2);
+    }
+
+    @Test
+    @DisplayName("n-gram 인덱스 후보 검색 테스트")
+    void findCandidatesTest() {
+        itemSearchIndex.index(ID1, "유기농 사과 주스", "제주산 사과 100%");
+        itemSearchIndex.index(ID2, "사과나무 묘목", "Apple tree");
+
+        // 1글자, 2글자, 3글자 이상 검색어
+        assertThat(itemSearchIndex.findCandidates(ItemSearchIndex.Field.ITEM_NAME, "사"))
+                .contains(ID1, ID2);
+        assertThat(itemSearchIndex.findCandidates(ItemSearchIndex.Field.ITEM_NAME, "사과"))
+                .contains(ID1, ID2);
+        assertThat(itemSearchIndex.findCandidates(ItemSearchIndex.Field.ITEM_NAME, "사과 주스"))
+                .contains(ID1).doesNotContain(ID2);
+
+        // 대소문자 구분 없음 (상세설명 필드)
+        assertThat(itemSearchIndex.findCandidates(ItemSearchIndex.Field.ITEM_DETAIL, "APPLE"))
+                .contains(ID2).doesNotContain(ID1);
+    }
+
+    @Test
+    @DisplayName("상품 수정 시 기존 조각이 제거되는지 테스트")
+    void reindexTest() {
+        itemSearchIndex.index(ID1, "유기농 사과 주스", "상세");
+        itemSearchIndex.index(ID1, "유기농 포도 주스", "상세");
+
+        Set<Long> candidates = itemSearchIndex.findCandidates(ItemSearchIndex.Field.ITEM_NAME, "사과");
+        assertThat(candidates).doesNotContain(ID1);
+
+        assertThat(itemSearchIndex.findCandidates(ItemSearchIndex.Field.ITEM_NAME, "포도"))
+                .contains(ID1);
+    }
+}
@@ -0,0 +1,74 @@
+package com.jpa.market;
+
+import com.jpa.market.dto.ItemSuggestDto;
+import com.jpa.market.repository.ItemSuggestIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemSuggestIndexTest {
+
+    @Autowired
+    ItemSuggestIndex itemSuggestIndex;
+
+    // 실제 상품과 겹치지 않도록 큰 id 사용
+    private static final Long ID1 = 900_000_101L;
+    private static final Long ID2 = 900_000_102L;
+    private static final Long ID3 = 900_000_103L;
+
+    // 실제 상품명과 겹치지 않는 접두어
+    private static final String PREFIX = "zqx테스트";
+
+    @AfterEach
+    void cleanUp() {
+        itemSuggestIndex.remove(ID1);
+        itemSuggestIndex.remove(ID2);
+        itemSuggestIndex.remove(ID3);
+    }
+
+    private List<Long> suggestIds(String prefix) {
+        return itemSuggestIndex.suggest(prefix, ItemSuggestIndex.MAX_SUGGESTIONS)
+                .stream().map(ItemSuggestDto::getItemId).toList();
+    }
+
+    @Test
+    @DisplayName("접두어 자동완성이 인기 순으로 정렬되는지 테스트")
+    void suggestRankingTest() {
+        itemSuggestIndex.put(ID1, PREFIX + " 사과", 5, false);
+        itemSuggestIndex.put(ID2, PREFIX + " 사과즙", 10, false);
+        itemSuggestIndex.put(ID3, PREFIX + " 배", 1, false);
+
+        assertThat(suggestIds(PREFIX)).containsExactly(ID2, ID1, ID3);
+        assertThat(suggestIds(PREFIX + " 사과")).containsExactly(ID2, ID1);
+
+        // 대소문자 구분 없음
+        assertThat(suggestIds(PREFIX.toUpperCase())).hasSize(3);
+
+        // 주문으로 인기도가 바뀌면 순위도 바뀜
+        itemSuggestIndex.addScore(ID1, 10);
+        assertThat(suggestIds(PREFIX + " 사과")).containsExactly(ID1, ID2);
+
+        // 취소로 인기도가 내려가면 다시 계산
+        itemSuggestIndex.addScore(ID1, -10);
+        assertThat(suggestIds(PREFIX + " 사과")).containsExactly(ID2, ID1);
+    }
+
+    @Test
+    @DisplayName("상품명 수정 시 기존 접두어에서 빠지는지 테스트")
+    void renameTest() {
+        itemSuggestIndex.put(ID1, PREFIX + " 사과", 3, false);
+        itemSuggestIndex.put(ID1, PREFIX + " 포도", 0, true);
+
+        assertThat(suggestIds(PREFIX + " 사")).doesNotContain(ID1);
+        assertThat(itemSuggestIndex.suggest(PREFIX + " 포", 10))
+                .extracting(ItemSuggestDto::getItemName)
+                .containsExactly(PREFIX + " 포도");
+    }
+}
@@ -0,0 +1,142 @@
+package com.jpa.market;
+
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.dto.MemberJoinDto;
+import com.jpa.market.dto.MemberOrderSummaryDto;
+import com.jpa.market.dto.OrderDto;
+import com.jpa.market.entity.Item;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberOrderSummaryRepository;
+import com.jpa.market.service.MemberService;
+import com.jpa.market.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//회원 주문 요약 테스트 : 주문하면 더해지고, 취소하면 빠지고, 다시 계산하면 주문 집계값으로 맞춰지는지
+//요약은 update 쿼리로만 바뀌므로 조회 전에 영속성 컨텍스트를 비워서 DB 값을 읽음
+@SpringBootTest
+@Transactional
+class MemberOrderSummaryTest {
+
+    private static final String LOGIN_ID = "summary01";
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberOrderSummaryRepository memberOrderSummaryRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    EntityManager em;
+
+    private Long memberId;
+
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        MemberJoinDto dto = new MemberJoinDto();
+        dto.setLoginId(LOGIN_ID);
+        dto.setPassword("12345678");
+        dto.setName("주문요약");
+        dto.setEmail("summary01@naver.com");
+        dto.setAddress("울산시 남구 삼산동");
+        memberId = memberService.joinMember(dto);
+
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemName("주문 요약 테스트 상품");
+        itemFormDto.setPrice(10000);
+        itemFormDto.setStockNumber(100);
+        itemFormDto.setItemDetail("주문 요약 테스트 상품 상세 설명");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+        itemId = itemRepository.save(Item.createItem(itemFormDto)).getId();
+    }
+
+    private Long order(int count) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setItemId(itemId);
+        orderDto.setCount(count);
+        return orderService.order(orderDto, LOGIN_ID);
+    }
+
+    private MemberOrderSummaryDto summary() {
+        em.flush();
+        em.clear();
+        return orderService.getOrderSummary(LOGIN_ID);
+    }
+
+    @Test
+    @DisplayName("주문할 때마다 주문 건수, 총 주문 금액, 총 주문 수량이 더해지는지 테스트")
+    void addToSummaryTest() {
+        assertThat(summary().getOrderCount()).isZero();
+
+        order(2);
+        order(3);
+
+        MemberOrderSummaryDto summary = summary();
+        assertThat(summary.getOrderCount()).isEqualTo(2);
+        assertThat(summary.getTotalPrice()).isEqualTo(50000L);
+        assertThat(summary.getItemCount()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("주문을 취소하면 그 주문만큼 빠지고, 두 번 취소해도 한 번만 빠지는지 테스트")
+    void cancelSubtractTest() {
+        order(2);
+        Long cancelOrderId = order(3);
+
+        orderService.cancelOrder(cancelOrderId, LOGIN_ID);
+
+        MemberOrderSummaryDto summary = summary();
+        assertThat(summary.getOrderCount()).isEqualTo(1);
+        assertThat(summary.getTotalPrice()).isEqualTo(20000L);
+        assertThat(summary.getItemCount()).isEqualTo(2L);
+
+        assertThatThrownBy(() -> orderService.cancelOrder(cancelOrderId, LOGIN_ID))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(summary().getOrderCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다시 계산하면 이미 있는 요약 행도 취소되지 않은 주문의 집계값으로 덮어쓰는지 테스트")
+    void rebuildOverwritesExistingSummaryTest() {
+        order(2);
+        Long cancelOrderId = order(3);
+        orderService.cancelOrder(cancelOrderId, LOGIN_ID);
+
+        // 요약 행이 잘못된 값으로 이미 있는 경우 (채우기 작업 전에 들어온 주문 등)
+        em.flush();
+        jdbcTemplate.update("update member_order_summary set order_count = 7, total_price = -1, item_count = -1 " +
+                "where member_id = ?", memberId);
+
+        memberOrderSummaryRepository.rebuildMembers(List.of(memberId), LocalDateTime.now());
+
+        MemberOrderSummaryDto summary = summary();
+        assertThat(summary.getOrderCount()).isEqualTo(1);
+        assertThat(summary.getTotalPrice()).isEqualTo(20000L);
+        assertThat(summary.getItemCount()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,236 @@
+package com.jpa.market;
+
+import com.jpa.market.config.jpa.EntityIdGenerator;
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.CartDetailDto;
+import com.jpa.market.dto.CartOrderLineDto;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.dto.MemberJoinDto;
+import com.jpa.market.entity.Cart;
+import com.jpa.market.entity.Item;
+import com.jpa.market.repository.CartItemRepository;
+import com.jpa.market.repository.CartRepository;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberRepository;
+import com.jpa.market.service.MemberService;
+import com.jpa.market.service.MemoryCartStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//메모리 장바구니 저장소 테스트
+//설정과 상관없이 테스트용 저장소를 직접 만들어서 사용 (스케줄러가 돌지 않으므로 flushAll은 직접 호출)
+//반영은 별도 트랜잭션에서 커밋되므로 @Transactional을 붙이지 않고, 만든 데이터는 테스트 후 삭제함
+@SpringBootTest
+class MemoryCartStoreTest {
+
+    private static final String LOGIN_ID = "cartstore01";
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    CartRepository cartRepository;
+
+    @Autowired
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityIdGenerator idGenerator;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private MemoryCartStore cartStore;
+
+    private Long memberId;
+
+    private final List<Long> createdItemIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MemberJoinDto dto = new MemberJoinDto();
+        dto.setLoginId(LOGIN_ID);
+        dto.setPassword("12345678");
+        dto.setName("장바구니");
+        dto.setEmail("cartstore01@naver.com");
+        dto.setAddress("울산시 남구 삼산동");
+        memberId = memberService.joinMember(dto);
+
+        cartStore = new MemoryCartStore(30, memberRepository, cartRepository, cartItemRepository,
+                itemRepository, jdbcTemplate, idGenerator, transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        Cart cart = cartRepository.findByMemberId(memberId);
+        if (cart != null) {
+            jdbcTemplate.update("delete from cart_item where cart_id = ?", cart.getId());
+            cartRepository.delete(cart);
+        }
+        memberRepository.deleteById(memberId);
+        itemRepository.deleteAllById(createdItemIds);
+        createdItemIds.clear();
+    }
+
+    private Long createItem(String itemName) {
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemName(itemName);
+        itemFormDto.setPrice(10000);
+        itemFormDto.setStockNumber(100);
+        itemFormDto.setItemDetail("장바구니 테스트 상품 상세 설명");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+
+        Long itemId = itemRepository.save(Item.createItem(itemFormDto)).getId();
+        createdItemIds.add(itemId);
+        return itemId;
+    }
+
+    private List<CartOrderLineDto> savedLines() {
+        Cart cart = cartRepository.findByMemberId(memberId);
+        return cart == null ? List.of() : cartItemRepository.findCartLines(cart.getId());
+    }
+
+    @Test
+    @DisplayName("장바구니 변경은 메모리에만 반영되고, flush 후에 DB에 한 번에 반영되는지 테스트")
+    void writeBehindTest() {
+        Long firstItemId = createItem("장바구니 테스트 상품1");
+        Long secondItemId = createItem("장바구니 테스트 상품2");
+
+        // 같은 상품을 두 번 담으면 같은 장바구니 상품의 수량만 증가
+        Long firstCartItemId = cartStore.addItem(LOGIN_ID, firstItemId, 1);
+        assertThat(cartStore.addItem(LOGIN_ID, firstItemId, 2)).isEqualTo(firstCartItemId);
+        Long secondCartItemId = cartStore.addItem(LOGIN_ID, secondItemId, 1);
+
+        // 반영 전에는 DB에 없지만 조회는 메모리 기준 (최근에 담은 순)
+        assertThat(savedLines()).isEmpty();
+        List<CartDetailDto> details = cartStore.getCartDetails(LOGIN_ID);
+        assertThat(details).extracting(CartDetailDto::getCartItemId).containsExactly(secondCartItemId, firstCartItemId);
+        assertThat(details.get(1).getCount()).isEqualTo(3);
+
+        // 주기 반영 : 장바구니(cart)가 만들어지고 미리 받아둔 id 그대로 저장됨
+        cartStore.flushAll();
+        assertThat(savedLines()).extracting(CartOrderLineDto::getCartItemId)
+                .containsExactly(firstCartItemId, secondCartItemId);
+
+        // 수량 변경과 삭제도 주문 전 flush에서 반영됨
+        cartStore.updateCount(firstCartItemId, 5, LOGIN_ID);
+        cartStore.removeItem(secondCartItemId, LOGIN_ID);
+        cartStore.flush(LOGIN_ID);
+
+        List<CartOrderLineDto> lines = savedLines();
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).getCartItemId()).isEqualTo(firstCartItemId);
+        assertThat(lines.get(0).getCount()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("담은 후 삭제된 상품은 장바구니에서 빠지고 나머지 상품은 반영되는지 테스트")
+    void deletedItemIsDroppedTest() {
+        Long keptItemId = createItem("장바구니 테스트 상품1");
+        Long deletedItemId = createItem("장바구니 테스트 상품2");
+
+        Long keptCartItemId = cartStore.addItem(LOGIN_ID, keptItemId, 1);
+        cartStore.addItem(LOGIN_ID, deletedItemId, 1);
+
+        // 반영 전에 상품이 삭제되면 insert가 외래키 오류로 실패함
+        itemRepository.deleteById(deletedItemId);
+        createdItemIds.remove(deletedItemId);
+
+        cartStore.flushAll();
+        assertThat(savedLines()).extracting(CartOrderLineDto::getCartItemId).containsExactly(keptCartItemId);
+
+        // 다음 주문 전 flush도 실패하지 않음
+        cartStore.flush(LOGIN_ID);
+        assertThat(cartStore.getCartDetails(LOGIN_ID)).extracting(CartDetailDto::getCartItemId)
+                .containsExactly(keptCartItemId);
+    }
+
+    //다른 트랜잭션이 행 락을 기다리고 있을 때까지 대기
+    private void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Long waiting = jdbcTemplate.queryForObject(
+                    "select count(*) from information_schema.innodb_trx where trx_state = 'LOCK WAIT'", Long.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("반영이 행 락을 기다리지 않음");
+    }
+
+    @Test
+    @DisplayName("주기 반영이 커밋되기 전에 주문 전 flush가 들어오면 반영이 끝날 때까지 기다려서 주문이 최신 수량을 읽는지 테스트")
+    void flushWaitsForScheduledWriteTest() throws Exception {
+        Long itemId = createItem("장바구니 테스트 상품");
+        Long cartItemId = cartStore.addItem(LOGIN_ID, itemId, 1);
+        cartStore.flushAll();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            // 장바구니 상품 행을 잠가서 주기 반영의 update가 커밋되지 못하고 기다리게 함
+            Future<?> lockHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("select count from cart_item where cart_item_id = ? for update",
+                        Integer.class, cartItemId);
+                locked.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // 주기 반영 : 수량 3을 꺼내서(깨끗한 상태로 바꾼 후) update에서 기다림
+            cartStore.updateCount(cartItemId, 3, LOGIN_ID);
+            Future<?> scheduledWrite = executor.submit(() -> cartStore.flushAll());
+            awaitLockWait();
+
+            // 반영 중에 주문 : 메모리에는 바뀐 내용이 없어 보이지만, flush 후 DB에서 읽은 수량으로 주문함
+            Future<Integer> checkout = executor.submit(() -> {
+                cartStore.flush(LOGIN_ID);
+                return savedLines().get(0).getCount();
+            });
+
+            // 주기 반영이 커밋되기 전에는 flush가 끝나지 않아야 함
+            Thread.sleep(500);
+            assertThat(checkout.isDone()).isFalse();
+
+            release.countDown();
+            lockHolder.get(10, TimeUnit.SECONDS);
+            scheduledWrite.get(10, TimeUnit.SECONDS);
+            assertThat(checkout.get(10, TimeUnit.SECONDS)).isEqualTo(3);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.jpa.market;
+
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.dto.MemberJoinDto;
+import com.jpa.market.dto.OrderDto;
+import com.jpa.market.entity.Item;
+import com.jpa.market.entity.Member;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberRepository;
+import com.jpa.market.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//장바구니 주문(상품 20개) 한 번에 실행되는 SQL 문장 수 비교 (insert 배치 끔 vs 켬)
+//배치를 끄면 IDENTITY를 쓸 때처럼 insert가 한 행에 한 문장씩 실행됨
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderBatchInsertBenchmarkTest {
+
+    private static final int CART_LINES = 20;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    EntityManager em;
+
+    private List<OrderDto> createCart() {
+        List<OrderDto> orderDtoList = new ArrayList<>();
+        for (int i = 0; i < CART_LINES; i++) {
+            ItemFormDto itemFormDto = new ItemFormDto();
+            itemFormDto.setItemName("배치 테스트 상품 " + i);
+            itemFormDto.setPrice(1000);
+            itemFormDto.setStockNumber(100);
+            itemFormDto.setItemDetail("배치 테스트 상품 상세 설명");
+            itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+            Item item = itemRepository.save(Item.createItem(itemFormDto));
+
+            OrderDto orderDto = new OrderDto();
+            orderDto.setItemId(item.getId());
+            orderDto.setCount(1);
+            orderDtoList.add(orderDto);
+        }
+        return orderDtoList;
+    }
+
+    private String createMember(String loginId) {
+        MemberJoinDto dto = new MemberJoinDto();
+        dto.setLoginId(loginId);
+        dto.setPassword("12345678");
+        dto.setName("배치테스트");
+        dto.setEmail(loginId + "@test.com");
+        dto.setAddress("울산시 남구");
+        memberRepository.save(Member.createMember(dto, passwordEncoder));
+        return loginId;
+    }
+
+    //주문 한 번에 준비된 JDBC 문장 수
+    private long countStatements(List<OrderDto> orderDtoList, String loginId, Integer batchSize) {
+        Session session = em.unwrap(Session.class);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        em.flush();
+        em.clear();
+        session.setJdbcBatchSize(batchSize);
+        statistics.clear();
+
+        orderService.orderMultipleItems(orderDtoList, loginId);
+        em.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        session.setJdbcBatchSize(null);
+        return statements;
+    }
+
+    @Test
+    @DisplayName("상품 20개 장바구니 주문 시 insert 배치로 SQL 문장 수가 줄어드는지 테스트")
+    void checkoutStatementCountTest() {
+        List<OrderDto> orderDtoList = createCart();
+        String before = createMember("batch-before");
+        String after = createMember("batch-after");
+
+        long unbatched = countStatements(orderDtoList, before, 1);
+        long batched = countStatements(orderDtoList, after, null);
+
+        System.out.printf("[장바구니 주문 %d개] 배치 끔: %d문장, 배치 켬: %d문장%n", CART_LINES, unbatched, batched);
+
+        // 주문상품 insert 20문장이 묶이므로 최소 CART_LINES - 1 문장 이상 줄어야 함
+        assertThat(batched).isLessThanOrEqualTo(unbatched - (CART_LINES - 1));
+    }
+}
@@ -0,0 +1,107 @@
+package com.jpa.market;
+
+import com.jpa.market.config.jpa.EntityIdGenerator;
+import com.jpa.market.dto.MemberJoinDto;
+import com.jpa.market.dto.OrderHistDto;
+import com.jpa.market.entity.Order;
+import com.jpa.market.service.MemberService;
+import com.jpa.market.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//주문 내역 페이지 테스트 : 최근 주문(orders)을 다 넘긴 페이지부터 보관된 주문(orders_archive)을 이어서 보여주는지
+//최근 주문 3개 + 보관된 주문 4개, 페이지 크기 2
+//  0페이지 : 최근 0,1 / 1페이지 : 최근 2 + 보관 0 / 2페이지 : 보관 1,2 / 3페이지 : 보관 3
+@SpringBootTest
+@Transactional
+class OrderHistoryPagingTest {
+
+    private static final String LOGIN_ID = "orderpage01";
+
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityIdGenerator idGenerator;
+
+    //최신순
+    private final List<Long> recentOrderIds = new ArrayList<>();
+
+    //최신순
+    private final List<Long> archivedOrderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MemberJoinDto dto = new MemberJoinDto();
+        dto.setLoginId(LOGIN_ID);
+        dto.setPassword("12345678");
+        dto.setName("주문내역");
+        dto.setEmail("orderpage01@naver.com");
+        dto.setAddress("울산시 남구 삼산동");
+        Long memberId = memberService.joinMember(dto);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            Long orderId = idGenerator.nextId(Order.class);
+            jdbcTemplate.update("insert into orders (order_id, member_id, order_date, order_status, total_price, item_count) " +
+                    "values (?, ?, ?, 'ORDER', 10000, 1)", orderId, memberId, Timestamp.valueOf(now.minusDays(i)));
+            recentOrderIds.add(orderId);
+        }
+        for (int i = 0; i < 4; i++) {
+            Long orderId = idGenerator.nextId(Order.class);
+            jdbcTemplate.update("insert into orders_archive (order_id, member_id, order_date, order_status, total_price, item_count) " +
+                    "values (?, ?, ?, 'ORDER', 10000, 1)", orderId, memberId, Timestamp.valueOf(now.minusYears(2).minusDays(i)));
+            archivedOrderIds.add(orderId);
+        }
+    }
+
+    private List<Long> orderIdsOf(int page) {
+        Page<OrderHistDto> result = orderService.getOrderList(LOGIN_ID, PageRequest.of(page, PAGE_SIZE));
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        return result.getContent().stream().map(OrderHistDto::getOrderId).toList();
+    }
+
+    @Test
+    @DisplayName("최근 주문으로 다 채워지는 페이지에는 보관된 주문이 섞이지 않는지 테스트")
+    void recentOnlyPageTest() {
+        assertThat(orderIdsOf(0)).containsExactly(recentOrderIds.get(0), recentOrderIds.get(1));
+    }
+
+    @Test
+    @DisplayName("최근 주문이 모자란 페이지는 보관된 주문의 처음부터 남은 칸만큼 채우는지 테스트")
+    void boundaryPageTest() {
+        assertThat(orderIdsOf(1)).containsExactly(recentOrderIds.get(2), archivedOrderIds.get(0));
+    }
+
+    @Test
+    @DisplayName("최근 주문을 다 넘긴 페이지는 앞 페이지에서 보여준 보관된 주문 다음부터 보여주는지 테스트")
+    void archivedOnlyPageTest() {
+        // offset 4 - 최근 주문 3개 = 보관된 주문 offset 1
+        assertThat(orderIdsOf(2)).containsExactly(archivedOrderIds.get(1), archivedOrderIds.get(2));
+        // 마지막 페이지는 남은 1개만
+        assertThat(orderIdsOf(3)).containsExactly(archivedOrderIds.get(3));
+        assertThat(orderIdsOf(4)).isEmpty();
+    }
+}
@@ -0,0 +1,219 @@
+package com.jpa.market;
+
+import com.jpa.market.config.exception.OrderQueueFullException;
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.constant.OrderTicketStatus;
+import com.jpa.market.dto.ItemFormDto;
+import com.jpa.market.dto.MemberJoinDto;
+import com.jpa.market.dto.OrderDto;
+import com.jpa.market.dto.OrderTicketDto;
+import com.jpa.market.dto.QueuedOrderDto;
+import com.jpa.market.entity.Item;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.MemberRepository;
+import com.jpa.market.service.MemberService;
+import com.jpa.market.service.OrderPipeline;
+import com.jpa.market.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//비동기 주문 대기열 테스트 (order.pipeline.enabled=true)
+//  - 묶음 중 한 주문의 재고가 부족하면 그 주문만 FAILED, 나머지는 COMPLETED
+//  - 대기열이 가득 차면 접수 거절, 종료할 때는 대기열에 남은 주문까지 처리
+//상품 행을 다른 트랜잭션에서 잠가두면 처리 중인 묶음이 멈추므로 그 사이에 들어온 주문이 대기열에 쌓임
+//트랜잭션마다 커밋되어야 하므로 @Transactional을 붙이지 않고, 만든 데이터는 테스트 후 삭제함
+@SpringBootTest(properties = "order.pipeline.enabled=true")
+class OrderPipelineTest {
+
+    private static final String LOGIN_ID = "pipeline01";
+
+    @Autowired
+    OrderPipeline orderPipeline;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Long memberId;
+
+    private Long itemId;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        MemberJoinDto dto = new MemberJoinDto();
+        dto.setLoginId(LOGIN_ID);
+        dto.setPassword("12345678");
+        dto.setName("주문대기열");
+        dto.setEmail("pipeline01@naver.com");
+        dto.setAddress("울산시 남구 삼산동");
+        memberId = memberService.joinMember(dto);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        release.countDown();
+        executor.shutdown();
+
+        jdbcTemplate.update("delete from order_item where order_id in (select order_id from orders where member_id = ?)", memberId);
+        jdbcTemplate.update("delete from orders where member_id = ?", memberId);
+        jdbcTemplate.update("delete from member_order_summary where member_id = ?", memberId);
+        memberRepository.deleteById(memberId);
+        if (itemId != null) {
+            itemRepository.deleteById(itemId);
+        }
+    }
+
+    private void createItem(int stockNumber) {
+        ItemFormDto itemFormDto = new ItemFormDto();
+        itemFormDto.setItemName("주문 대기열 테스트 상품");
+        itemFormDto.setPrice(10000);
+        itemFormDto.setStockNumber(stockNumber);
+        itemFormDto.setItemDetail("주문 대기열 테스트 상품 상세 설명");
+        itemFormDto.setItemSellStatus(ItemSellStatus.SELL);
+        itemId = itemRepository.save(Item.createItem(itemFormDto)).getId();
+    }
+
+    private QueuedOrderDto order(int count) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setItemId(itemId);
+        orderDto.setCount(count);
+        return new QueuedOrderDto(LOGIN_ID, List.of(orderDto), List.of());
+    }
+
+    //release될 때까지 상품 행을 잠그고 있음 (대기열의 재고 차감이 이 락을 기다림)
+    private void lockItemRow() throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("select stock_number from item where item_id = ? for update", Integer.class, itemId);
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    //처리가 끝날 때까지 접수증 상태 확인
+    private OrderTicketDto awaitTicket(OrderPipeline pipeline, String ticketId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            OrderTicketDto ticket = pipeline.getTicket(ticketId, LOGIN_ID);
+            if (ticket.getStatus() != OrderTicketStatus.QUEUED) {
+                return ticket;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("주문이 처리되지 않음 (접수증 ID: " + ticketId + ")");
+    }
+
+    private int stockNumber() {
+        return itemRepository.findById(itemId).orElseThrow().getStockNumber();
+    }
+
+    @Test
+    @DisplayName("묶음의 합계 수량이 재고보다 많으면 한 건씩 다시 처리해서 재고가 부족한 주문만 실패하는지 테스트")
+    void batchFailureOnlyFailsShortOrderTest() throws InterruptedException {
+        createItem(10);
+        lockItemRow();
+
+        // 합계 15개 > 재고 10개 : 묶음은 실패하고, 한 건씩 처리하면 3 -> 7, 3 -> 4, 5는 부족, 4 -> 0
+        List<String> ticketIds = new ArrayList<>();
+        for (int count : new int[]{3, 3, 5, 4}) {
+            ticketIds.add(orderPipeline.submit(order(count)).getTicketId());
+        }
+        release.countDown();
+
+        List<OrderTicketDto> results = new ArrayList<>();
+        for (String ticketId : ticketIds) {
+            results.add(awaitTicket(orderPipeline, ticketId));
+        }
+
+        assertThat(results).extracting(OrderTicketDto::getStatus).containsExactly(
+                OrderTicketStatus.COMPLETED, OrderTicketStatus.COMPLETED,
+                OrderTicketStatus.FAILED, OrderTicketStatus.COMPLETED);
+        assertThat(results.get(2).getMessage()).contains("재고가 부족합니다");
+        assertThat(results.get(2).getOrderId()).isNull();
+        assertThat(results).filteredOn(ticket -> ticket.getStatus() == OrderTicketStatus.COMPLETED)
+                .extracting(OrderTicketDto::getOrderId).doesNotContainNull().doesNotHaveDuplicates();
+
+        assertThat(stockNumber()).isEqualTo(0);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from orders where member_id = ?", Long.class, memberId))
+                .isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 접수를 거절하고, 종료할 때는 대기열에 남은 주문까지 처리하는지 테스트")
+    void queueFullAndDrainOnShutdownTest() throws Exception {
+        createItem(100);
+        // 대기열 1칸, 동시 처리 묶음 1개
+        OrderPipeline pipeline = new OrderPipeline(true, 1, 50, 1, 600, orderService);
+        pipeline.start();
+        lockItemRow();
+
+        // 처리 중인 묶음이 락을 기다리므로 최대 (처리 중 1 + 꺼내서 기다리는 1 + 대기열 1)건 접수 후 가득 참
+        List<String> ticketIds = new ArrayList<>();
+        OrderQueueFullException queueFull = null;
+        for (int i = 0; i < 5 && queueFull == null; i++) {
+            try {
+                ticketIds.add(pipeline.submit(order(1)).getTicketId());
+            } catch (OrderQueueFullException e) {
+                queueFull = e;
+            }
+        }
+        assertThat(queueFull).isNotNull();
+        assertThat(ticketIds).hasSizeBetween(1, 3);
+
+        // 종료는 남은 주문을 모두 처리할 때까지 기다림
+        Future<?> shutdown = executor.submit(() -> {
+            pipeline.shutdown();
+            return null;
+        });
+        Thread.sleep(300);
+        assertThat(shutdown.isDone()).isFalse();
+
+        release.countDown();
+        shutdown.get(30, TimeUnit.SECONDS);
+
+        for (String ticketId : ticketIds) {
+            assertThat(pipeline.getTicket(ticketId, LOGIN_ID).getStatus()).isEqualTo(OrderTicketStatus.COMPLETED);
+        }
+        assertThat(stockNumber()).isEqualTo(100 - ticketIds.size());
+    }
+}
@@ -175,6 +175,19 @@ public class OrderRepositoryTest {
         System.out.println("Order Date: " + orderItem.getOrder().getOrderDate());
     }
 
+    @Test
+    @DisplayName("주문 총액/수량 저장 테스트")
+    public void totalPriceTest() {
+        // 10000원 상품 10개씩 3개 주문상품
+        Order order = this.createOrder();
+        em.flush();
+        em.clear();
 
+        Order savedOrder = orderRepository.findById(order.getId())
+                .orElseThrow(EntityNotFoundException::new);
 
+        // 주문상품을 로딩하지 않고 주문에 저장된 값으로 확인
+        assertEquals(300000, savedOrder.getTotalPrice());
+        assertEquals(30, savedOrder.getItemCount());
+    }
 }
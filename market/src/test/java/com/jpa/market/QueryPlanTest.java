@@ -0,0 +1,344 @@
+package com.jpa.market;
+
+import com.jpa.market.constant.ItemSellStatus;
+import com.jpa.market.dto.ItemSearchDto;
+import com.jpa.market.entity.IdSequence;
+import com.jpa.market.repository.CartItemRepository;
+import com.jpa.market.repository.ItemImgRepository;
+import com.jpa.market.repository.ItemRepository;
+import com.jpa.market.repository.OrderRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+//리포지토리 쿼리 실행계획 검사
+//로컬 MySQL에 테스트 데이터를 넣고, 실제 리포지토리 메서드가 실행하는 SQL을 그대로 EXPLAIN 해서
+//풀스캔(type = ALL)이나 filesort가 생기면 실패시킴 -> 인덱스가 빠지거나 쿼리가 바뀌어 실행계획이 나빠진 것을 잡기 위함
+//데이터를 많이 넣어서 시간이 걸리므로 기본 test에서는 빠져있음. ./gradlew queryPlanTest 로 실행
+@Tag("query-plan")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+
+    private static final String PREFIX = "plan-test-";
+
+    private static final int ITEM_COUNT = 3000;
+    private static final int MEMBER_COUNT = 50;
+    private static final int ORDERS_PER_MEMBER = 20;
+    private static final int CART_ITEMS_PER_MEMBER = 5;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemImgRepository itemImgRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Long firstItemId;
+    private Long firstCartId;
+
+    //EXPLAIN 결과 한 줄
+    record PlanRow(String sql, String table, String type, String key, String extra) {
+    }
+
+    @TestConfiguration
+    static class ExplainConfig {
+
+        //DataSource를 감싸서 조회 SQL이 실행될 때 같은 파라미터로 EXPLAIN도 같이 실행되도록 함
+        @Bean
+        static BeanPostProcessor explainingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ExplainingDataSource.wrap(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. 상품 + 대표 이미지 (등록일은 최근 300일에 고르게 분포)
+        long itemBase = reserveIds("item", ITEM_COUNT);
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Object[]{itemBase + i, PREFIX + i, 1000 + i, 100, "상세 설명 " + i,
+                    (i % 10 == 0 ? ItemSellStatus.SOLD_OUT : ItemSellStatus.SELL).name(),
+                    "https://img/" + i + ".jpg", Timestamp.valueOf(now.minusHours(i * 2L))});
+        }
+        jdbcTemplate.batchUpdate("insert into item (item_id, item_name, price, stock_number, item_detail, item_sell_status, " +
+                "rep_img_url, reg_time) values (?, ?, ?, ?, ?, ?, ?, ?)", items);
+        List<Long> itemIds = jdbcTemplate.queryForList(
+                "select item_id from item where item_name like '" + PREFIX + "%' order by item_id", Long.class);
+        firstItemId = itemIds.get(0);
+
+        long imgBase = reserveIds("item_img", ITEM_COUNT * 2);
+        jdbcTemplate.update("insert into item_img (item_img_id, item_id, img_url, rep_img_yn) " +
+                "select ? + (item_id - ?), item_id, rep_img_url, 'Y' from item where item_name like '" + PREFIX + "%'",
+                imgBase, itemBase);
+        jdbcTemplate.update("insert into item_img (item_img_id, item_id, img_url, rep_img_yn) " +
+                "select ? + (item_id - ?), item_id, rep_img_url, 'N' from item where item_name like '" + PREFIX + "%'",
+                imgBase + ITEM_COUNT, itemBase);
+
+        // 2. 회원 + 주문 + 장바구니
+        long memberBase = reserveIds("member", MEMBER_COUNT);
+        List<Object[]> members = new ArrayList<>();
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            members.add(new Object[]{memberBase + i, PREFIX + i, "테스트" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, login_id, name) values (?, ?, ?)", members);
+
+        List<Long> memberIds = jdbcTemplate.queryForList(
+                "select member_id from member where login_id like '" + PREFIX + "%' order by member_id", Long.class);
+
+        long orderId = reserveIds("orders", MEMBER_COUNT * ORDERS_PER_MEMBER);
+        List<Object[]> orders = new ArrayList<>();
+        for (Long memberId : memberIds) {
+            for (int i = 0; i < ORDERS_PER_MEMBER; i++) {
+                orders.add(new Object[]{orderId++, memberId, Timestamp.valueOf(now.minusDays(i)), "ORDER", 10000, 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into orders (order_id, member_id, order_date, order_status, total_price, item_count) " +
+                "values (?, ?, ?, ?, ?, ?)", orders);
+
+        long cartBase = reserveIds("cart", MEMBER_COUNT);
+        jdbcTemplate.update("insert into cart (cart_id, member_id) " +
+                "select ? + (member_id - ?), member_id from member where login_id like '" + PREFIX + "%'",
+                cartBase, memberBase);
+        List<Long> cartIds = jdbcTemplate.queryForList("select c.cart_id from cart c join member m " +
+                "on c.member_id = m.member_id where m.login_id like '" + PREFIX + "%' order by c.cart_id", Long.class);
+        firstCartId = cartIds.get(0);
+
+        long cartItemId = reserveIds("cart_item", MEMBER_COUNT * CART_ITEMS_PER_MEMBER);
+        List<Object[]> cartItems = new ArrayList<>();
+        for (int c = 0; c < cartIds.size(); c++) {
+            for (int i = 0; i < CART_ITEMS_PER_MEMBER; i++) {
+                cartItems.add(new Object[]{cartItemId++, cartIds.get(c), itemIds.get(c * CART_ITEMS_PER_MEMBER + i), 1,
+                        Timestamp.valueOf(now.minusMinutes(i))});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into cart_item (cart_item_id, cart_id, item_id, count, reg_time) values (?, ?, ?, ?, ?)",
+                cartItems);
+
+        // 3. 통계 갱신 (데이터를 넣은 직후에는 옵티마이저가 잘못된 계획을 고를 수 있음)
+        for (String table : List.of("item", "item_img", "member", "orders", "cart", "cart_item")) {
+            jdbcTemplate.queryForList("analyze table " + table);
+        }
+    }
+
+    //id_sequence에서 count개의 id를 건너뛰게 해서 JDBC로 직접 넣을 id 범위를 확보 (시작 id 반환)
+    //Hibernate가 이미 받아둔 범위와도 겹치지 않도록 ALLOCATION_SIZE만큼 더 건너뜀
+    private long reserveIds(String segment, int count) {
+        Long start = jdbcTemplate.queryForObject("select next_val from id_sequence where sequence_name = ?",
+                Long.class, segment);
+        jdbcTemplate.update("update id_sequence set next_val = next_val + ? where sequence_name = ?",
+                count + IdSequence.ALLOCATION_SIZE, segment);
+        return start;
+    }
+
+    @AfterAll
+    void cleanUp() {
+        String members = "select member_id from member where login_id like '" + PREFIX + "%'";
+        jdbcTemplate.update("delete from cart_item where cart_id in (select cart_id from cart where member_id in (" + members + "))");
+        jdbcTemplate.update("delete from cart where member_id in (" + members + ")");
+        jdbcTemplate.update("delete from orders where member_id in (" + members + ")");
+        jdbcTemplate.update("delete from member where login_id like '" + PREFIX + "%'");
+
+        String items = "select item_id from item where item_name like '" + PREFIX + "%'";
+        jdbcTemplate.update("delete from item_img where item_id in (" + items + ")");
+        jdbcTemplate.update("delete from item where item_name like '" + PREFIX + "%'");
+    }
+
+    @Test
+    @DisplayName("메인 화면 상품 목록 / 더보기")
+    public void mainItemQueries() {
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+
+        assertPlan("메인 목록", false,
+                () -> itemRepository.getMainItemPage(itemSearchDto, PageRequest.of(2, 6)));
+        assertPlan("메인 더보기", false,
+                () -> itemRepository.getMainItemSlice(itemSearchDto, firstItemId + ITEM_COUNT / 2, 6));
+    }
+
+    @Test
+    @DisplayName("관리자 상품 목록 (등록일 + 판매상태 조건)")
+    public void adminItemQueries() {
+        ItemSearchDto itemSearchDto = new ItemSearchDto();
+        itemSearchDto.setSearchDateType("1m");
+        itemSearchDto.setSearchSellStatus(ItemSellStatus.SOLD_OUT);
+
+        // 등록일 범위로 찾은 결과를 id 역순으로 정렬하므로 filesort는 허용
+        // (범위 조건으로 줄어든 행만 정렬하고, 조건이 없을 때는 PK 역순으로 읽음)
+        assertPlan("관리자 목록 - 등록일/판매상태", true,
+                () -> itemRepository.getAdminItemPage(itemSearchDto, PageRequest.of(0, 5)));
+
+        assertPlan("관리자 목록 - 조건 없음", false,
+                () -> itemRepository.getAdminItemPage(new ItemSearchDto(), PageRequest.of(3, 5)));
+    }
+
+    @Test
+    @DisplayName("상품 이미지 조회")
+    public void itemImgQueries() {
+        assertPlan("상품 이미지 목록", false,
+                () -> itemImgRepository.findByItemIdOrderByIdAsc(firstItemId));
+        assertPlan("대표 이미지", false,
+                () -> itemImgRepository.findByItemIdAndRepImgYn(firstItemId, "Y"));
+    }
+
+    @Test
+    @DisplayName("회원별 주문 목록")
+    public void orderQueries() {
+        assertPlan("주문 목록", false,
+                () -> orderRepository.findOrders(PREFIX + 3, PageRequest.of(1, 4)));
+    }
+
+    @Test
+    @DisplayName("장바구니 조회")
+    public void cartItemQueries() {
+        assertPlan("장바구니 담기 중복 확인", false,
+                () -> cartItemRepository.findByCartIdAndItemId(firstCartId, firstItemId));
+
+        // 한 회원의 장바구니 상품만 담긴 시간순으로 정렬하므로 filesort 허용 (정렬 대상이 장바구니 크기만큼)
+        assertPlan("장바구니 목록", true,
+                () -> cartItemRepository.findCartDetailDtoList(firstCartId));
+    }
+
+    //리포지토리 호출 중에 실행된 조회 SQL의 실행계획을 검사
+    private void assertPlan(String name, boolean allowFilesort, Runnable repositoryCall) {
+        List<PlanRow> plan = ExplainingDataSource.capture(repositoryCall);
+
+        assertFalse(plan.isEmpty(), name + " : 실행된 조회 쿼리가 없습니다.");
+
+        for (PlanRow row : plan) {
+            if ("ALL".equals(row.type())) {
+                fail(name + " : 풀스캔 발생 (table: " + row.table() + ")\n" + row.sql());
+            }
+            if (!allowFilesort && row.extra() != null && row.extra().contains("Using filesort")) {
+                fail(name + " : filesort 발생 (table: " + row.table() + ", key: " + row.key() + ")\n" + row.sql());
+            }
+        }
+    }
+
+    //조회 SQL이 실행될 때 같은 커넥션, 같은 파라미터로 EXPLAIN을 먼저 실행해서 결과를 모아두는 DataSource
+    static class ExplainingDataSource {
+
+        private static final ThreadLocal<List<PlanRow>> CAPTURED = new ThreadLocal<>();
+
+        static List<PlanRow> capture(Runnable call) {
+            CAPTURED.set(new ArrayList<>());
+            try {
+                call.run();
+                return CAPTURED.get();
+            } finally {
+                CAPTURED.remove();
+            }
+        }
+
+        static DataSource wrap(DataSource target) {
+            return proxy(DataSource.class, target, (method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof Connection connection) {
+                    return wrapConnection(connection);
+                }
+                return result;
+            });
+        }
+
+        private static Connection wrapConnection(Connection target) {
+            return proxy(Connection.class, target, (method, args) -> {
+                Object result = invoke(target, method, args);
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement ps) {
+                    return wrapStatement(target, ps, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement wrapStatement(Connection connection, PreparedStatement target, String sql) {
+            //setLong(1, ..), setString(2, ..) 같은 파라미터 설정을 기억했다가 EXPLAIN 문에도 똑같이 설정
+            List<Object[]> parameterCalls = new ArrayList<>();
+
+            return proxy(PreparedStatement.class, target, (method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    parameterCalls.add(new Object[]{method, args});
+                }
+                if (method.getName().equals("executeQuery") && (args == null || args.length == 0)
+                        && CAPTURED.get() != null && sql.trim().toLowerCase().startsWith("select")) {
+                    CAPTURED.get().addAll(explain(connection, sql, parameterCalls));
+                }
+                return invoke(target, method, args);
+            });
+        }
+
+        private static List<PlanRow> explain(Connection connection, String sql, List<Object[]> parameterCalls)
+                throws Exception {
+            List<PlanRow> rows = new ArrayList<>();
+            try (PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+                for (Object[] call : parameterCalls) {
+                    ((Method) call[0]).invoke(explain, (Object[]) call[1]);
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new PlanRow(sql, rs.getString("table"), rs.getString("type"),
+                                rs.getString("key"), rs.getString("Extra")));
+                    }
+                }
+            }
+            return rows;
+        }
+
+        private interface Handler {
+            Object handle(Method method, Object[] args) throws Exception;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> handler.handle(method, args));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Exception {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}